@@ -108,6 +108,108 @@ CREATE TABLE IF NOT EXISTS price_calculations (
     total_price DECIMAL(10,2) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- natural key: input file (name@size:mtime, SourceFileKey) + line number in that file (NULL for rows without a known source)
+    source_file VARCHAR(255) NULL,
+    source_line BIGINT NULL,
     INDEX idx_created_at (created_at),
-    INDEX idx_total_price (total_price)
+    INDEX idx_total_price (total_price),
+    -- keyset of incremental exports (ExportWatermarkListener)
+    INDEX idx_price_calculations_updated (updated_at, id),
+    UNIQUE KEY uk_price_calculations_source (source_file, source_line)
 ) ENGINE=InnoDB;
+
+-- VAT rate lookup table: rate code from the input CSV -> effective rate (preloaded into the rate cache at step start)
+CREATE TABLE IF NOT EXISTS vat_rates (
+    rate_code VARCHAR(32) NOT NULL PRIMARY KEY,
+    rate DECIMAL(5,4) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO vat_rates (rate_code, rate) VALUES ('0.07', 0.0700), ('0.10', 0.1000), ('0.00', 0.0000);
+
+-- Bulk load staging (BulkLoadTasklet): rows are tagged with the job execution that loaded them
+CREATE TABLE IF NOT EXISTS price_calculations_staging (
+    job_execution_id BIGINT NOT NULL,
+    id BIGINT NOT NULL,
+    original_price DECIMAL(10,2) NOT NULL,
+    vat_rate DECIMAL(5,4) NOT NULL,
+    vat_amount DECIMAL(10,2) NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    source_file VARCHAR(255),
+    source_line BIGINT,
+    -- merge slices (BulkLoadTasklet) walk the staging rows of one job execution in id order
+    INDEX idx_staging_job_execution (job_execution_id, id)
+) ENGINE=InnoDB;
+
+-- Pooled ID allocation (PooledIdAllocator): next unreserved id per table.
+-- Rows are seeded on first use from MAX(id) + 1, so existing AUTO_INCREMENT ids stay valid.
+CREATE TABLE IF NOT EXISTS id_allocator (
+    sequence_name VARCHAR(100) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+-- High-water mark for incremental exports: (updated_at, id) of the last exported price_calculations row per job
+CREATE TABLE IF NOT EXISTS export_watermark (
+    job_name VARCHAR(100) NOT NULL PRIMARY KEY,
+    last_exported_id BIGINT NOT NULL,
+    last_updated_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NOT NULL
+) ENGINE=InnoDB;
+
+-- Migrations for databases created from an older version of this file.
+-- MySQL 8.0 has no ADD COLUMN / ADD INDEX IF NOT EXISTS, so each change checks information_schema first.
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE price_calculations ADD INDEX idx_price_calculations_updated (updated_at, id)', 'DO 0')
+    FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'price_calculations'
+      AND INDEX_NAME = 'idx_price_calculations_updated');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+-- Id-only watermarks have no last_updated_at: the next incremental export starts from the beginning once
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE export_watermark ADD COLUMN last_updated_at TIMESTAMP NULL AFTER last_exported_id', 'DO 0')
+    FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'export_watermark' AND COLUMN_NAME = 'last_updated_at');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+-- Natural key of the upsert writer mode (rows loaded before it keep NULL source columns)
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE price_calculations ADD COLUMN source_file VARCHAR(255) NULL AFTER updated_at', 'DO 0')
+    FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'price_calculations' AND COLUMN_NAME = 'source_file');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE price_calculations ADD COLUMN source_line BIGINT NULL AFTER source_file', 'DO 0')
+    FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'price_calculations' AND COLUMN_NAME = 'source_line');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE price_calculations ADD UNIQUE KEY uk_price_calculations_source (source_file, source_line)', 'DO 0')
+    FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'price_calculations'
+      AND INDEX_NAME = 'uk_price_calculations_source');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+-- Sliced bulk-load merge: idx_staging_job_execution was (job_execution_id) only
+SET @ddl = (SELECT IF(COUNT(*) = 1,
+        'ALTER TABLE price_calculations_staging DROP INDEX idx_staging_job_execution, ADD INDEX idx_staging_job_execution (job_execution_id, id)',
+        'DO 0')
+    FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'price_calculations_staging'
+      AND INDEX_NAME = 'idx_staging_job_execution');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
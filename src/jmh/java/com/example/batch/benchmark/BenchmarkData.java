@@ -0,0 +1,83 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.exportjson.model.VatCalculationExport;
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.model.PriceInput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic datasets for the JMH benchmarks (same seed = same data between runs).
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 20250823L;
+    private static final String[] VAT_RATES = {"0.07", "0.10", "0.00", "0.0725"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Writes a price CSV in the same layout as input-data.csv (header + price,vatRate).
+     */
+    static Path writePriceCsv(int rows) throws IOException {
+        Path file = Files.createTempFile("bench-prices-" + rows + "-", ".csv");
+        file.toFile().deleteOnExit();
+        SplittableRandom random = new SplittableRandom(SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("price,vatRate\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(randomPrice(random).toPlainString());
+                writer.write(',');
+                writer.write(VAT_RATES[random.nextInt(VAT_RATES.length)]);
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    static PriceInput[] priceInputs(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        PriceInput[] inputs = new PriceInput[rows];
+        for (int i = 0; i < rows; i++) {
+            inputs[i] = new PriceInput(randomPrice(random), new BigDecimal(VAT_RATES[random.nextInt(VAT_RATES.length)]));
+        }
+        return inputs;
+    }
+
+    static PriceCalculation[] priceCalculations(int rows) {
+        PriceInput[] inputs = priceInputs(rows);
+        PriceCalculation[] calculations = new PriceCalculation[rows];
+        for (int i = 0; i < rows; i++) {
+            BigDecimal vatAmount = inputs[i].getPrice().multiply(inputs[i].getVatRate()).setScale(2, RoundingMode.HALF_UP);
+            calculations[i] = new PriceCalculation(inputs[i].getPrice(), inputs[i].getVatRate(), vatAmount,
+                    inputs[i].getPrice().add(vatAmount));
+            calculations[i].setId((long) i + 1);
+        }
+        return calculations;
+    }
+
+    static VatCalculationExport[] exports(int rows) {
+        PriceCalculation[] calculations = priceCalculations(rows);
+        VatCalculationExport[] exports = new VatCalculationExport[rows];
+        LocalDateTime processedAt = LocalDateTime.of(2025, 8, 23, 5, 6, 1);
+        for (int i = 0; i < rows; i++) {
+            exports[i] = new VatCalculationExport(calculations[i]);
+            exports[i].setProcessedAt(processedAt);
+        }
+        return exports;
+    }
+
+    private static BigDecimal randomPrice(SplittableRandom random) {
+        // 0.01 - 99,999.99 (ตรงกับ DECIMAL(10,2) ของ price_calculations)
+        return BigDecimal.valueOf(random.nextLong(1, 10_000_000L), 2);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.model.PriceInput;
+import com.example.batch.vatcalculation.processor.VatCalculationProcessor;
+import com.example.batch.vatcalculation.rate.SimulatedVatRateResolver;
+import com.example.batch.vatcalculation.writer.ColumnarVatCalculationWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * คำนวณ VAT ทั้ง chunk: item mode (VatCalculationProcessor ทีละ item) เทียบกับ columnar mode
+ * (ColumnarVatCalculationWriter) ทั้งสองแบบส่งผลให้ writer ที่ไม่ทำอะไร
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ColumnarChunkBenchmark {
+
+    @Param({"1000", "10000"})
+    public int chunkSize;
+
+    private Chunk<PriceInput> chunk;
+    private VatCalculationProcessor processor;
+    private ColumnarVatCalculationWriter columnarWriter;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        chunk = Chunk.of(BenchmarkData.priceInputs(chunkSize));
+        processor = new VatCalculationProcessor(0, true);
+        columnarWriter = new ColumnarVatCalculationWriter(written -> this.blackhole.consume(written),
+                new SimulatedVatRateResolver(0));
+    }
+
+    @Benchmark
+    public List<PriceCalculation> itemProcessor() throws Exception {
+        List<PriceCalculation> calculations = new ArrayList<>(chunk.size());
+        for (PriceInput input : chunk) {
+            calculations.add(processor.process(input));
+        }
+        return calculations;
+    }
+
+    @Benchmark
+    public void columnar() throws Exception {
+        columnarWriter.write(chunk);
+    }
+}
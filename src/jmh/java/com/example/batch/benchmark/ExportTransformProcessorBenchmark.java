@@ -0,0 +1,50 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.exportjson.model.VatCalculationExport;
+import com.example.batch.exportjson.processor.ExportTransformProcessor;
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExportTransformProcessor.process per item (entity -> export DTO).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportTransformProcessorBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ExportTransformProcessor processor;
+    private PriceCalculation[] calculations;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        processor = new ExportTransformProcessor();
+        calculations = BenchmarkData.priceCalculations(rows);
+    }
+
+    @Benchmark
+    public VatCalculationExport transform() throws Exception {
+        PriceCalculation calculation = calculations[next];
+        next = next + 1 == calculations.length ? 0 : next + 1;
+        return processor.process(calculation);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.exportjson.model.VatCalculationExport;
+import com.example.batch.exportjson.writer.JsonFileWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export ทั้ง dataset ผ่าน JsonFileWriter (streaming serialization + file I/O)
+ * <p>
+ * เขียน chunk ขนาด 1,000 record ซ้ำจนครบ rows เพื่อไม่ต้องถือ dataset 10M record ไว้ใน heap
+ * <p>
+ * เรียก lifecycle เหมือน step ที่ COMPLETED: afterStep ปิดไฟล์, เขียน exportInfo และ manifest (checksum)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonFileWriterBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"json", "ndjson"})
+    public String format;
+
+    @Param({"none"})
+    public String compression;
+
+    private Path outputDirectory;
+    private Chunk<VatCalculationExport> chunk;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        outputDirectory = Files.createTempDirectory("bench-exports-");
+        chunk = Chunk.of(BenchmarkData.exports(Math.min(rows, CHUNK_SIZE)));
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() throws IOException {
+        FileSystemUtils.deleteRecursively(outputDirectory);
+        Files.createDirectories(outputDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(outputDirectory);
+    }
+
+    @Benchmark
+    public void writeAll() throws Exception {
+        JsonFileWriter writer = new JsonFileWriter(outputDirectory.toString(), false, 65536, 1L, format, compression);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        writer.beforeStep(stepExecution);
+        writer.open(stepExecution.getExecutionContext());
+        for (int written = 0; written < rows; written += chunk.size()) {
+            writer.write(chunk);
+        }
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        writer.afterStep(stepExecution);
+        writer.close();
+    }
+}
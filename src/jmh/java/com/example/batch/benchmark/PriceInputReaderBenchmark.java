@@ -0,0 +1,82 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.vatcalculation.config.VatCalculationJobConfig;
+import com.example.batch.vatcalculation.model.PriceInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * อ่านไฟล์ CSV ทั้งไฟล์ผ่าน vatCalculationReader ตัวเดียวกับที่ job ใช้
+ * เทียบ line mapper แบบ bean-wrapper (BeanWrapperFieldSetMapper) กับ fast (PriceInputLineMapper)
+ * และ FlatFileItemReader กับ MappedPriceFileReader (mmap)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceInputReaderBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"flat-file", "mmap"})
+    public String readerMode;
+
+    // ใช้เฉพาะ readerMode=flat-file
+    @Param({"bean-wrapper", "fast"})
+    public String lineMapper;
+
+    private Path inputFile;
+    private VatCalculationJobConfig config;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.writePriceCsv(rows);
+        config = new VatCalculationJobConfig(null, null, null, null, null);
+        ReflectionTestUtils.setField(config, "inputFile", new FileSystemResource(inputFile));
+        ReflectionTestUtils.setField(config, "readerMode", readerMode);
+        ReflectionTestUtils.setField(config, "lineMapperMode", lineMapper);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+    }
+
+    @Benchmark
+    public long readAll(Blackhole blackhole) throws Exception {
+        ItemStreamReader<PriceInput> reader = config.vatCalculationReader(null, null, null, null, null);
+        reader.open(new ExecutionContext());
+        long count = 0;
+        PriceInput item;
+        while ((item = reader.read()) != null) {
+            blackhole.consume(item);
+            count++;
+        }
+        reader.close();
+        return count;
+    }
+}
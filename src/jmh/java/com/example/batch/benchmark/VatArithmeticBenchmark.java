@@ -0,0 +1,80 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.vatcalculation.model.PriceInput;
+import com.example.batch.vatcalculation.processor.FixedPointVatCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VAT arithmetic อย่างเดียว: BigDecimal multiply/add/setScale เทียบกับ FixedPointVatCalculator
+ * <p>
+ * ใช้ {@code -prof gc} เพื่อดู allocation ต่อ operation (fixed-point ไม่ควร allocate เลย)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class VatArithmeticBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int rows;
+
+    private BigDecimal[] prices;
+    private BigDecimal[] rates;
+    private long[] priceUnscaled;
+    private long[] rateUnscaled;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        PriceInput[] inputs = BenchmarkData.priceInputs(rows);
+        prices = new BigDecimal[rows];
+        rates = new BigDecimal[rows];
+        priceUnscaled = new long[rows];
+        rateUnscaled = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            prices[i] = inputs[i].getPrice();
+            rates[i] = inputs[i].getVatRate();
+            priceUnscaled[i] = FixedPointVatCalculator.toUnscaled(prices[i], FixedPointVatCalculator.PRICE_SCALE);
+            rateUnscaled[i] = FixedPointVatCalculator.toUnscaled(rates[i], FixedPointVatCalculator.RATE_SCALE);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        int i = nextIndex();
+        BigDecimal vatAmount = prices[i].multiply(rates[i]).setScale(2, RoundingMode.HALF_UP);
+        blackhole.consume(vatAmount);
+        blackhole.consume(prices[i].add(vatAmount).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    @Benchmark
+    public void fixedPoint(Blackhole blackhole) {
+        int i = nextIndex();
+        long vatAmount = FixedPointVatCalculator.vatAmount(priceUnscaled[i], rateUnscaled[i]);
+        blackhole.consume(vatAmount);
+        blackhole.consume(FixedPointVatCalculator.totalPrice(priceUnscaled[i], vatAmount));
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == rows ? 0 : i + 1;
+        return i;
+    }
+}
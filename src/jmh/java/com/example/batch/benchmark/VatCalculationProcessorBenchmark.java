@@ -0,0 +1,55 @@
+package com.example.batch.benchmark;
+
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.model.PriceInput;
+import com.example.batch.vatcalculation.processor.VatCalculationProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VatCalculationProcessor.process per item: VAT math (BigDecimal หรือ fixed-point)
+ * (simulated external latency disabled, per-item logging is DEBUG only).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class VatCalculationProcessorBenchmark {
+
+    // ขนาด pool ของ input ที่วนใช้ (10M ไม่รวมเพราะ PriceInput ทั้งหมดต้องอยู่ใน heap)
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean fixedPoint;
+
+    private VatCalculationProcessor processor;
+    private PriceInput[] inputs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        processor = new VatCalculationProcessor(0, fixedPoint);
+        inputs = BenchmarkData.priceInputs(rows);
+    }
+
+    @Benchmark
+    public PriceCalculation process() throws Exception {
+        PriceInput input = inputs[next];
+        next = next + 1 == inputs.length ? 0 : next + 1;
+        return processor.process(input);
+    }
+}
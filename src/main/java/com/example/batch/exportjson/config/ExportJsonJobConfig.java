@@ -3,70 +3,235 @@ package com.example.batch.exportjson.config;
 import com.example.batch.vatcalculation.model.PriceCalculation;
 import com.example.batch.exportjson.model.VatCalculationExport;
 import com.example.batch.exportjson.processor.ExportTransformProcessor;
+import com.example.batch.exportjson.reader.VatCalculationExportRowMapper;
+import com.example.batch.exportjson.watermark.ExportWatermark;
+import com.example.batch.exportjson.watermark.ExportWatermarkListener;
 import com.example.batch.exportjson.writer.JsonFileWriter;
+import com.example.batch.shared.chunk.ChunkCompletionPolicyFactory;
 import com.example.batch.shared.repository.PriceCalculationRepository;
 import com.example.batch.shared.config.BatchJobMetricsListener;
 import com.example.batch.shared.config.BatchStepMetricsListener;
+import com.example.batch.shared.config.ChunkProgressLoggingListener;
+import com.example.batch.shared.monitoring.JobExecutionReadModel;
+import com.example.batch.shared.monitoring.LiveProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.data.RepositoryItemReader;
 import org.springframework.batch.item.data.builder.RepositoryItemReaderBuilder;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.support.DatabaseType;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 public class ExportJsonJobConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExportJsonJobConfig.class);
+
+    static final String READER_MODE_JPA = "jpa";
+    static final String READER_MODE_KEYSET = "keyset";
+    static final String READER_MODE_CURSOR = "cursor";
+
+    // watermark และเวลาตัดที่ ExportWatermarkListener ใส่ไว้ใน beforeStep (START = export ทั้งตาราง)
+    private static final String AFTER_EXPRESSION = "#{stepExecutionContext['" + ExportWatermarkListener.AFTER_KEY + "']}";
+    private static final String UNTIL_EXPRESSION = "#{stepExecutionContext['" + ExportWatermarkListener.UNTIL_KEY + "']}";
+
+    // keyset บน (updated_at, id): แถวที่ถูก upsert จะย้ายไปท้ายลำดับและถูก export อีกครั้ง
+    private static final String CHANGED_AFTER_CONDITION = "(updated_at > :afterUpdatedAt"
+            + " OR (updated_at = :afterUpdatedAt AND id > :afterId)) AND updated_at <= :until";
+
+    // page size ต่อ run (ไม่ระบุ = batch.export.page-size)
+    static final String PAGE_SIZE_PARAMETER = "pageSize";
+    private static final String PAGE_SIZE_EXPRESSION = "#{jobParameters['" + PAGE_SIZE_PARAMETER + "']}";
+
     private final JobRepository jobRepository;
 
+    @Value("${batch.export.reader-mode:jpa}")
+    private String readerMode;
+
+    @Value("${batch.export.page-size:10}")
+    private int pageSize;
+
+    // ค่า default ของ commit interval (override ต่อ run ด้วย job parameter chunkSize)
+    @Value("${batch.export.chunk-size:10}")
+    private int chunkSize;
+
+    @Value("${batch.export.fetch-size:1000}")
+    private int fetchSize;
+
     public ExportJsonJobConfig(JobRepository jobRepository) {
         this.jobRepository = jobRepository;
     }
 
-    // Reader สำหรับอ่านข้อมูลจาก price_calculations table
+    // Reader สำหรับอ่านข้อมูลจาก price_calculations table เฉพาะแถวที่ (updated_at, id) > watermark
+    // ไม่เก็บ state: ถ้า restart จะ export ใหม่ทั้งหมดลงไฟล์ใหม่ (JsonFileWriter เปิดไฟล์ใหม่ทุก step execution)
     @Bean
-    public RepositoryItemReader<PriceCalculation> exportReader(PriceCalculationRepository repository) {
+    @StepScope
+    public RepositoryItemReader<PriceCalculation> exportReader(PriceCalculationRepository repository,
+            @Value(AFTER_EXPRESSION) ExportWatermark after,
+            @Value(UNTIL_EXPRESSION) LocalDateTime until,
+            @Value(PAGE_SIZE_EXPRESSION) Object pageSizeParameter) {
+        Map<String, Sort.Direction> sorts = new LinkedHashMap<>();
+        sorts.put("updatedAt", Sort.Direction.ASC);
+        sorts.put("id", Sort.Direction.ASC);
         return new RepositoryItemReaderBuilder<PriceCalculation>()
                 .name("priceCalculationReader")
                 .repository(repository)
-                .methodName("findAll")
-                .sorts(Map.of("id", Sort.Direction.ASC))
-                .pageSize(10)
+                .methodName("findChangedAfter")
+                .arguments(List.of(after.updatedAt(), after.id(), until))
+                .sorts(sorts)
+                .pageSize(pageSize(pageSizeParameter))
+                .saveState(false)
                 .build();
     }
 
+    // Reader แบบ JDBC: map แถวเป็น VatCalculationExport ตรง ๆ ไม่ผ่าน persistence context
+    // keyset = WHERE (updated_at, id) > last ORDER BY updated_at, id LIMIT :pageSize (ต้นทุนต่อหน้าคงที่ ไม่เหมือน OFFSET)
+    // cursor = query เดียวแบบ streaming (MySQL ใช้ fetchSize = Integer.MIN_VALUE)
+    @Bean
+    @StepScope
+    public ItemStreamReader<VatCalculationExport> exportJdbcReader(
+            @Qualifier("businessDataSource") DataSource dataSource,
+            @Value(AFTER_EXPRESSION) ExportWatermark after,
+            @Value(UNTIL_EXPRESSION) LocalDateTime until,
+            @Value(PAGE_SIZE_EXPRESSION) Object pageSizeParameter) throws Exception {
+        VatCalculationExportRowMapper rowMapper = new VatCalculationExportRowMapper();
+        Timestamp afterUpdatedAt = Timestamp.valueOf(after.updatedAt());
+        if (READER_MODE_CURSOR.equals(readerMode)) {
+            return new JdbcCursorItemReaderBuilder<VatCalculationExport>()
+                    .name("priceCalculationCursorReader")
+                    .dataSource(dataSource)
+                    .sql("SELECT " + VatCalculationExportRowMapper.SELECT_COLUMNS + " FROM price_calculations"
+                            + " WHERE (updated_at > ? OR (updated_at = ? AND id > ?)) AND updated_at <= ?"
+                            + " ORDER BY updated_at, id")
+                    .queryArguments(afterUpdatedAt, afterUpdatedAt, after.id(), Timestamp.valueOf(until))
+                    .fetchSize(cursorFetchSize(dataSource))
+                    .rowMapper(rowMapper)
+                    .saveState(false)
+                    .build();
+        }
+        Map<String, Order> sortKeys = new LinkedHashMap<>();
+        sortKeys.put("updated_at", Order.ASCENDING);
+        sortKeys.put("id", Order.ASCENDING);
+        return new JdbcPagingItemReaderBuilder<VatCalculationExport>()
+                .name("priceCalculationKeysetReader")
+                .dataSource(dataSource)
+                .selectClause(VatCalculationExportRowMapper.SELECT_COLUMNS)
+                .fromClause("price_calculations")
+                .whereClause(CHANGED_AFTER_CONDITION)
+                .parameterValues(Map.of("afterUpdatedAt", afterUpdatedAt, "afterId", after.id(),
+                        "until", Timestamp.valueOf(until)))
+                .sortKeys(sortKeys)
+                .pageSize(pageSize(pageSizeParameter))
+                .rowMapper(rowMapper)
+                .saveState(false)
+                .build();
+    }
+
+    private int pageSize(Object pageSizeParameter) {
+        return ChunkCompletionPolicyFactory.positiveInt(PAGE_SIZE_PARAMETER, pageSizeParameter, pageSize);
+    }
+
+    // MySQL Connector/J จะ stream แถวทีละแถวเมื่อ fetchSize = Integer.MIN_VALUE เท่านั้น
+    private int cursorFetchSize(DataSource dataSource) {
+        try {
+            if (DatabaseType.fromMetaData(dataSource) == DatabaseType.MYSQL) {
+                return Integer.MIN_VALUE;
+            }
+        } catch (MetaDataAccessException e) {
+            logger.warn("Could not detect database type, using fetch size {}", fetchSize, e);
+        }
+        return fetchSize;
+    }
+
+    // Step scope: chunk size อ่านจาก job parameters ของ run นั้น และ adaptive policy มี state ต่อ step execution
+    @Bean
+    @StepScope
+    public CompletionPolicy exportCompletionPolicy(
+            @Value("#{stepExecution}") StepExecution stepExecution,
+            ChunkCompletionPolicyFactory chunkCompletionPolicyFactory) {
+        return chunkCompletionPolicyFactory.create(stepExecution, chunkSize);
+    }
+
     // Step สำหรับ Export JSON: Read -> Transform -> Write
     @Bean
     public Step exportToJsonStep(
             @Qualifier("businessTransactionManager") PlatformTransactionManager transactionManager,
             RepositoryItemReader<PriceCalculation> exportReader,
+            ItemStreamReader<VatCalculationExport> exportJdbcReader,
             ExportTransformProcessor exportTransformProcessor,
             JsonFileWriter jsonFileWriter,
-            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener) {
-        return new StepBuilder("exportToJsonStep", jobRepository)
-                .<PriceCalculation, VatCalculationExport>chunk(10, transactionManager)
-                .reader(exportReader)
-                .processor(exportTransformProcessor)
-                .writer(jsonFileWriter)
-                .listener(stepMetricsListener)
-                .build();
+            ExportWatermarkListener exportWatermarkListener,
+            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener,
+            ChunkProgressLoggingListener chunkProgressLoggingListener,
+            LiveProgressTracker liveProgressTracker,
+            JobExecutionReadModel jobExecutionReadModel,
+            @Qualifier("exportCompletionPolicy") CompletionPolicy exportCompletionPolicy) {
+        StepBuilder stepBuilder = new StepBuilder("exportToJsonStep", jobRepository);
+        stepBuilder.listener(jobExecutionReadModel);
+        return switch (readerMode) {
+            case READER_MODE_JPA -> stepMetricsListener.registerOn(stepBuilder
+                            .<PriceCalculation, VatCalculationExport>chunk(exportCompletionPolicy, transactionManager)
+                            .reader(exportReader)
+                            .processor(exportTransformProcessor)
+                            .writer(jsonFileWriter))
+                    .listener((StepExecutionListener) exportWatermarkListener)
+                    .listener((ItemWriteListener<VatCalculationExport>) exportWatermarkListener)
+                    .listener(chunkProgressLoggingListener)
+                    .listener((StepExecutionListener) liveProgressTracker)
+                    .listener((ChunkListener) liveProgressTracker)
+                    .build();
+            // JDBC reader ได้ VatCalculationExport มาแล้ว ไม่ต้องมี processor
+            case READER_MODE_KEYSET, READER_MODE_CURSOR -> stepMetricsListener.registerOn(stepBuilder
+                            .<VatCalculationExport, VatCalculationExport>chunk(exportCompletionPolicy, transactionManager)
+                            .reader(exportJdbcReader)
+                            .writer(jsonFileWriter))
+                    .listener((StepExecutionListener) exportWatermarkListener)
+                    .listener((ItemWriteListener<VatCalculationExport>) exportWatermarkListener)
+                    .listener(chunkProgressLoggingListener)
+                    .listener((StepExecutionListener) liveProgressTracker)
+                    .listener((ChunkListener) liveProgressTracker)
+                    .build();
+            default -> throw new IllegalArgumentException(
+                    "Unknown batch.export.reader-mode: " + readerMode);
+        };
     }
 
     // Job สำหรับ Export JSON
     @Bean
     public Job exportVatCalculationsJob(Step exportToJsonStep,
-            @Qualifier("batchJobMetricsListener") BatchJobMetricsListener jobMetricsListener) {
+            @Qualifier("batchJobMetricsListener") BatchJobMetricsListener jobMetricsListener,
+            JobExecutionReadModel jobExecutionReadModel) {
         return new JobBuilder("exportVatCalculationsJob", jobRepository)
                 .start(exportToJsonStep)
                 .listener(jobMetricsListener)
+                .listener(jobExecutionReadModel)
                 .build();
     }
 }
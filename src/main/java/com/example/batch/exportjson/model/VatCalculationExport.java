@@ -1,6 +1,7 @@
 package com.example.batch.exportjson.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -19,6 +20,10 @@ public class VatCalculationExport {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime processedAt;
 
+    // ใช้เลื่อน export watermark เท่านั้น ไม่เขียนลงไฟล์
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
     // Default constructor
     public VatCalculationExport() {
     }
@@ -31,6 +36,7 @@ public class VatCalculationExport {
         this.vatAmount = priceCalculation.getVatAmount();
         this.totalPrice = priceCalculation.getTotalPrice();
         this.processedAt = priceCalculation.getCreatedAt();
+        this.updatedAt = priceCalculation.getUpdatedAt();
     }
 
     // Getters and Setters
@@ -82,6 +88,14 @@ public class VatCalculationExport {
         this.processedAt = processedAt;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     @Override
     public String toString() {
         return "VatCalculationExport{" +
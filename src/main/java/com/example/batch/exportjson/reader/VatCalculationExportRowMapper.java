@@ -0,0 +1,32 @@
+package com.example.batch.exportjson.reader;
+
+import com.example.batch.exportjson.model.VatCalculationExport;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Map แถวจาก price_calculations ตรงเป็น VatCalculationExport
+ * โดยไม่ผ่าน JPA persistence context
+ */
+public class VatCalculationExportRowMapper implements RowMapper<VatCalculationExport> {
+
+    public static final String SELECT_COLUMNS = "id, original_price, vat_rate, vat_amount, total_price, created_at, updated_at";
+
+    @Override
+    public VatCalculationExport mapRow(ResultSet rs, int rowNum) throws SQLException {
+        VatCalculationExport export = new VatCalculationExport();
+        export.setId(rs.getLong("id"));
+        export.setOriginalPrice(rs.getBigDecimal("original_price"));
+        export.setVatRate(rs.getBigDecimal("vat_rate"));
+        export.setVatAmount(rs.getBigDecimal("vat_amount"));
+        export.setTotalPrice(rs.getBigDecimal("total_price"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        export.setProcessedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        export.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+        return export;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.batch.exportjson.watermark;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * ตำแหน่งล่าสุดที่ export แล้ว: {@code (updated_at, id)} ของแถวสุดท้าย เรียงแบบ keyset
+ * <p>
+ * id เป็นแค่ตัวตัดสินเมื่อ updated_at เท่ากัน ไม่ใช้ id อย่างเดียวเพราะ id จาก PooledIdAllocator
+ * ไม่ได้เรียงตามลำดับ commit และแถวที่ถูก upsert ยังคง id เดิม
+ */
+public record ExportWatermark(LocalDateTime updatedAt, long id) implements Serializable {
+
+    // ก่อนแถวแรก (TIMESTAMP ของ MySQL เริ่มหลัง 1970-01-01 00:00:00)
+    public static final ExportWatermark START = new ExportWatermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    public boolean isAfter(ExportWatermark other) {
+        int byTime = updatedAt.compareTo(other.updatedAt);
+        return byTime > 0 || (byTime == 0 && id > other.id);
+    }
+}
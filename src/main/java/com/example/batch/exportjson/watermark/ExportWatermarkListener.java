@@ -0,0 +1,98 @@
+package com.example.batch.exportjson.watermark;
+
+import com.example.batch.exportjson.model.VatCalculationExport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Incremental export: ก่อนเริ่ม step ใส่ตำแหน่งล่าสุดที่ export แล้ว ({@link #AFTER_KEY}) และเวลาตัด
+ * ({@link #UNTIL_KEY}) ลง step ExecutionContext ให้ reader อ่านเฉพาะแถวที่
+ * {@code (updated_at, id)} มากกว่า watermark และ {@code updated_at <= until} เรียงตาม {@code (updated_at, id)}
+ * เมื่อ step สำเร็จจึงเลื่อน watermark ไปที่แถวสุดท้ายที่เขียนลงไฟล์
+ * <p>
+ * ใช้ updated_at แทน id เพราะ id จาก PooledIdAllocator ถูกจองล่วงหน้าเป็นช่วง แถวที่ id น้อยกว่าจึง commit
+ * ทีหลังได้ และแถวที่ถูก upsert ยังคง id เดิม ส่วน updated_at ถูกตั้งตอน statement ทำงาน ไม่ใช่ตอน commit
+ * จึงตัดที่ {@code now - batch.export.incremental.safety-lag} ของ database: ค่านี้ต้องนานกว่า transaction
+ * เขียนที่นานที่สุด (หนึ่ง chunk) ไม่เช่นนั้นแถวที่ commit ช้ากว่านั้นอาจถูกข้าม
+ * <p>
+ * job parameter {@code full=true} (หรือปิด batch.export.incremental.enabled) จะ export ทั้งตาราง (จนถึงเวลาตัด)
+ * แต่ยังเลื่อน watermark ให้ run ถัดไปต่อจากจุดนี้
+ */
+@Component
+@StepScope
+public class ExportWatermarkListener implements StepExecutionListener, ItemWriteListener<VatCalculationExport> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportWatermarkListener.class);
+
+    public static final String AFTER_KEY = "export.after";
+    public static final String UNTIL_KEY = "export.until";
+
+    private final ExportWatermarkRepository watermarkRepository;
+    private final boolean fullExport;
+    private final Duration safetyLag;
+
+    private ExportWatermark start;
+    private ExportWatermark lastExported;
+
+    public ExportWatermarkListener(ExportWatermarkRepository watermarkRepository,
+            @Value("${batch.export.incremental.enabled:false}") boolean incrementalEnabled,
+            @Value("${batch.export.incremental.safety-lag:0s}") Duration safetyLag,
+            @Value("#{jobParameters['full']}") String full) {
+        this.watermarkRepository = watermarkRepository;
+        this.fullExport = !incrementalEnabled || Boolean.parseBoolean(full);
+        this.safetyLag = safetyLag;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        String jobName = jobName(stepExecution);
+        ExportWatermark after = fullExport ? ExportWatermark.START : watermarkRepository.find(jobName);
+        LocalDateTime until = watermarkRepository.currentTimestamp().minus(safetyLag);
+        stepExecution.getExecutionContext().put(AFTER_KEY, after);
+        stepExecution.getExecutionContext().put(UNTIL_KEY, until);
+        start = after;
+        lastExported = after;
+
+        logger.info("Export of {} starts after {} until updated_at {} ({} export)", jobName, after, until,
+                fullExport ? "full" : "incremental");
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends VatCalculationExport> items) {
+        for (VatCalculationExport item : items) {
+            if (item.getId() == null || item.getUpdatedAt() == null) {
+                continue;
+            }
+            ExportWatermark position = new ExportWatermark(item.getUpdatedAt(), item.getId());
+            if (position.isAfter(lastExported)) {
+                lastExported = position;
+            }
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        // เลื่อน watermark เฉพาะเมื่อ step สำเร็จและมีแถวใหม่ถูก export
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED && lastExported.isAfter(start)) {
+            watermarkRepository.save(jobName(stepExecution), lastExported);
+            logger.info("Export watermark of {} advanced to {}", jobName(stepExecution), lastExported);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private static String jobName(StepExecution stepExecution) {
+        return stepExecution.getJobExecution().getJobInstance().getJobName();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.batch.exportjson.watermark;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * เก็บ high-water mark ({@code updated_at}, id ของแถวล่าสุดที่ export แล้ว) ต่อ job ไว้ในตาราง export_watermark
+ * <p>
+ * ใช้ตารางแทน ExecutionContext เพราะทุก run เป็น job instance ใหม่ (startTime parameter)
+ * context ของ run ก่อนจึงไม่ถูกส่งต่อมา
+ */
+@Repository
+public class ExportWatermarkRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT last_updated_at, last_exported_id FROM export_watermark WHERE job_name = ?";
+
+    private static final String UPSERT_SQL = "INSERT INTO export_watermark "
+            + "(job_name, last_exported_id, last_updated_at, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE last_exported_id = VALUES(last_exported_id), "
+            + "last_updated_at = VALUES(last_updated_at), updated_at = VALUES(updated_at)";
+
+    // เวลาของ database (updated_at ถูกตั้งด้วยนาฬิกาของ database ไม่ใช่ของ application)
+    private static final String CURRENT_TIMESTAMP_SQL = "SELECT CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportWatermarkRepository(@Qualifier("businessJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return ตำแหน่งล่าสุดที่ export แล้ว หรือ {@link ExportWatermark#START} ถ้ายังไม่เคย export
+     * (รวมถึง watermark แบบ id อย่างเดียวของเวอร์ชันก่อน ซึ่งจะ export ใหม่ทั้งหมดหนึ่งครั้ง)
+     */
+    public ExportWatermark find(String jobName) {
+        List<ExportWatermark> watermarks = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+            Timestamp updatedAt = rs.getTimestamp("last_updated_at");
+            return updatedAt != null ? new ExportWatermark(updatedAt.toLocalDateTime(), rs.getLong("last_exported_id"))
+                    : ExportWatermark.START;
+        }, jobName);
+        return watermarks.isEmpty() ? ExportWatermark.START : watermarks.get(0);
+    }
+
+    public void save(String jobName, ExportWatermark watermark) {
+        jdbcTemplate.update(UPSERT_SQL, jobName, watermark.id(), Timestamp.valueOf(watermark.updatedAt()),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public LocalDateTime currentTimestamp() {
+        return jdbcTemplate.queryForObject(CURRENT_TIMESTAMP_SQL, Timestamp.class).toLocalDateTime();
+    }
+}
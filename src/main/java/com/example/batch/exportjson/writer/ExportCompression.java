@@ -0,0 +1,57 @@
+package com.example.batch.exportjson.writer;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * การบีบอัดไฟล์ export เลือกผ่าน job parameter {@code compression}
+ */
+public enum ExportCompression {
+
+    NONE("") {
+        @Override
+        public OutputStream wrap(OutputStream out, int bufferSize) {
+            return out;
+        }
+    },
+
+    GZIP(".gz") {
+        @Override
+        public OutputStream wrap(OutputStream out, int bufferSize) throws IOException {
+            return new GZIPOutputStream(out, bufferSize);
+        }
+    },
+
+    /** Zstandard ผ่าน aircompressor (pure Java ไม่ต้องใช้ native library) */
+    ZSTD(".zst") {
+        @Override
+        public OutputStream wrap(OutputStream out, int bufferSize) throws IOException {
+            return new ZstdOutputStream(out);
+        }
+    };
+
+    private final String extension;
+
+    ExportCompression(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract OutputStream wrap(OutputStream out, int bufferSize) throws IOException;
+
+    public static ExportCompression from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Unsupported export compression: " + value + " (none, gzip, zstd)", e);
+        }
+    }
+}
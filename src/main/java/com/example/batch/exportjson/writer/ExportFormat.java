@@ -0,0 +1,33 @@
+package com.example.batch.exportjson.writer;
+
+import java.util.Locale;
+
+/**
+ * รูปแบบไฟล์ export ที่รองรับ เลือกผ่าน job parameter {@code format}
+ */
+public enum ExportFormat {
+
+    /** JSON document เดียว: {"vatCalculations": [...], "exportInfo": {...}} */
+    JSON(".json"),
+
+    /** Newline-delimited JSON: หนึ่ง record ต่อบรรทัด ไม่มี envelope */
+    NDJSON(".ndjson");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (json, ndjson)", e);
+        }
+    }
+}
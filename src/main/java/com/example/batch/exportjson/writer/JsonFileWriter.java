@@ -1,78 +1,227 @@
 package com.example.batch.exportjson.writer;
 
 import com.example.batch.exportjson.model.VatCalculationExport;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.Chunk;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.List;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Custom JSON Writer สำหรับเขียนข้อมูล VAT calculations เป็น JSON file
  * เพื่อส่งให้ระบบรอบข้าง
+ * <p>
+ * เขียนแบบ streaming ด้วย Jackson {@link JsonGenerator}: เปิดไฟล์เดียวต่อ step execution ใน open(),
+ * ต่อท้ายทีละ chunk ใน write() และปิดไฟล์ใน close() ทำให้ใช้ memory คงที่ไม่ว่าจะ export กี่ record
+ * <p>
+ * ปิด array, เขียน {@code exportInfo} และ manifest เฉพาะเมื่อ step COMPLETED (afterStep ซึ่งรันก่อน close())
+ * ถ้า step fail ไฟล์จะถูกเปลี่ยนชื่อเป็น {@code .partial} โดยไม่มี manifest ระบบปลายทางจึงไม่หยิบไฟล์ที่ export ไม่ครบไปใช้
+ * <p>
+ * รูปแบบ ({@link ExportFormat}) และการบีบอัด ({@link ExportCompression}) เลือกผ่าน job parameters
+ * {@code format} / {@code compression} และทุกไฟล์ที่ export สำเร็จจะมี {@code .manifest.json} คู่กัน
+ * ระบุจำนวน record, ขนาดไฟล์ และ SHA-256 checksum
  */
 @Component
-public class JsonFileWriter implements ItemWriter<VatCalculationExport> {
+@StepScope
+public class JsonFileWriter implements ItemStreamWriter<VatCalculationExport>, StepExecutionListener {
 
     private static final Logger logger = LoggerFactory.getLogger(JsonFileWriter.class);
+
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    private static final String MANIFEST_SUFFIX = ".manifest.json";
+
+    static final String PARTIAL_SUFFIX = ".partial";
+
     private final ObjectMapper objectMapper;
+    private final ObjectWriter itemWriter;
+    private final String outputDirectory;
+    private final boolean indentOutput;
+    private final int bufferSize;
+    private final Long jobExecutionId;
+    private final ExportFormat format;
+    private final ExportCompression compression;
 
-    @Value("${batch.export.output-directory:/app/data/exports}")
-    private String outputDirectory;
+    private JsonGenerator generator;
+    private MessageDigest digest;
+    private CountingOutputStream uncompressedCounter;
+    private String filePath;
+    private long recordCount;
+
+    public JsonFileWriter(
+            @Value("${batch.export.output-directory:/app/data/exports}") String outputDirectory,
+            @Value("${batch.export.indent-output:true}") boolean indentOutput,
+            @Value("${batch.export.buffer-size:65536}") int bufferSize,
+            @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+            @Value("#{jobParameters['format'] ?: '${batch.export.format:json}'}") String format,
+            @Value("#{jobParameters['compression'] ?: '${batch.export.compression:none}'}") String compression) {
+        this.outputDirectory = outputDirectory;
+        this.indentOutput = indentOutput;
+        this.bufferSize = bufferSize;
+        this.jobExecutionId = jobExecutionId;
+        this.format = ExportFormat.from(format);
+        this.compression = ExportCompression.from(compression);
 
-    public JsonFileWriter() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        // flush เองทีละ chunk แทนที่จะ flush ทุก record
+        this.objectMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.itemWriter = objectMapper.writerFor(VatCalculationExport.class);
     }
 
     @Override
-    public void write(Chunk<? extends VatCalculationExport> chunk) throws Exception {
-        List<? extends VatCalculationExport> items = chunk.getItems();
-
-        if (items.isEmpty()) {
-            logger.info("No items to write to JSON file");
-            return;
-        }
-
-        logger.info("Writing {} VAT calculation records to JSON file", items.size());
-
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
         // สร้าง output directory ถ้ายังไม่มี
         createOutputDirectory();
 
-        // สร้างชื่อไฟล์ด้วย timestamp
+        // สร้างชื่อไฟล์ด้วย timestamp และ job execution id
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String fileName = String.format("vat_calculations_export_%s.json", timestamp);
-        String filePath = outputDirectory + "/" + fileName;
+        String fileName = String.format("vat_calculations_export_%s_%d%s%s", timestamp, jobExecutionId,
+                format.getExtension(), compression.getExtension());
+        filePath = outputDirectory + "/" + fileName;
+        recordCount = 0;
 
-        // สร้าง JSON structure พร้อม metadata
-        Map<String, Object> exportData = new HashMap<>();
-        exportData.put("exportInfo", createExportMetadata(items.size()));
-        exportData.put("vatCalculations", items);
+        try {
+            // JsonGenerator -> buffer -> นับ byte ก่อนบีบอัด -> compression -> SHA-256 -> file
+            digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+            OutputStream fileOut = new DigestOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(filePath), bufferSize), digest);
+            uncompressedCounter = new CountingOutputStream(compression.wrap(fileOut, bufferSize));
+            OutputStream out = new BufferedOutputStream(uncompressedCounter, bufferSize);
 
+            generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            // ไม่ให้ close() ปิด array/object ให้เอง: ปิดเฉพาะใน afterStep เมื่อ step COMPLETED
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            if (format == ExportFormat.NDJSON) {
+                generator.setRootValueSeparator(null);
+            } else {
+                if (indentOutput) {
+                    generator.useDefaultPrettyPrinter();
+                }
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("vatCalculations");
+            }
+            logger.info("Opened {} export file: {}", format, filePath);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ItemStreamException("Failed to open export file: " + filePath, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends VatCalculationExport> chunk) throws Exception {
+        for (VatCalculationExport item : chunk) {
+            itemWriter.writeValue(generator, item);
+            if (format == ExportFormat.NDJSON) {
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
+        recordCount += chunk.size();
+
+        logger.debug("Appended {} VAT calculation records to {} ({} total)", chunk.size(), filePath, recordCount);
+    }
+
+    // Writer ถูก register เป็น listener อัตโนมัติตอน build step (หลัง listener อื่น) จึงรันก่อน afterStep ของ listener อื่น
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (generator == null || stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+        try {
+            if (format == ExportFormat.JSON) {
+                // ปิด array แล้วเขียน metadata ซึ่งตอนนี้รู้จำนวน record ที่แน่นอนแล้ว
+                generator.writeEndArray();
+                generator.writePOJOField("exportInfo", createExportMetadata(recordCount));
+                generator.writeEndObject();
+            }
+            generator.close();
+            writeManifest();
+            generator = null;
+            logger.info("Successfully exported {} records to file: {}", recordCount, filePath);
+            return null;
+        } catch (IOException e) {
+            // exception จาก afterStep Spring Batch แค่ log ไว้ จึง mark step ว่า FAILED เอง
+            logger.error("Failed to finish export file: {}", filePath, e);
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.addFailureException(e);
+            return ExitStatus.FAILED.addExitDescription(e);
+        }
+    }
+
+    // generator ยังไม่ถูกปิดแปลว่า step ไม่ COMPLETED (หรือ afterStep ทำไม่สำเร็จ)
+    @Override
+    public void close() throws ItemStreamException {
+        if (generator == null) {
+            return;
+        }
+        try {
+            generator.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close incomplete export file: {}", filePath, e);
+        } finally {
+            generator = null;
+        }
         try {
-            writeJsonToFile(exportData, filePath);
-            logger.info("Successfully exported {} records to file: {}", items.size(), fileName);
+            Files.deleteIfExists(Path.of(filePath + MANIFEST_SUFFIX));
+            Path partial = Files.move(Path.of(filePath), Path.of(filePath + PARTIAL_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING);
+            logger.warn("Export step did not complete, moved {} records written so far to {}", recordCount, partial);
         } catch (IOException e) {
-            logger.error("Failed to write JSON file: {}", filePath, e);
-            throw new RuntimeException("Failed to export data to JSON file", e);
+            throw new ItemStreamException("Failed to mark incomplete export file " + filePath, e);
         }
     }
 
+    private void writeManifest() throws IOException {
+        File exportFile = new File(filePath);
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("fileName", exportFile.getName());
+        manifest.put("format", format.name());
+        manifest.put("compression", compression.name());
+        manifest.put("recordCount", recordCount);
+        manifest.put("uncompressedBytes", uncompressedCounter.getCount());
+        manifest.put("fileBytes", exportFile.length());
+        manifest.put("checksumAlgorithm", CHECKSUM_ALGORITHM);
+        manifest.put("checksum", HexFormat.of().formatHex(digest.digest()));
+        manifest.put("exportTimestamp", LocalDateTime.now());
+        manifest.put("jobExecutionId", jobExecutionId);
+
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(new File(filePath + MANIFEST_SUFFIX), manifest);
+    }
+
     private void createOutputDirectory() {
         File directory = new File(outputDirectory);
         if (!directory.exists()) {
@@ -85,8 +234,8 @@ public class JsonFileWriter implements ItemWriter<VatCalculationExport> {
         }
     }
 
-    private Map<String, Object> createExportMetadata(int recordCount) {
-        Map<String, Object> metadata = new HashMap<>();
+    private Map<String, Object> createExportMetadata(long recordCount) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
         metadata.put("exportTimestamp", LocalDateTime.now());
         metadata.put("recordCount", recordCount);
         metadata.put("source", "batch-processing-system");
@@ -95,9 +244,31 @@ public class JsonFileWriter implements ItemWriter<VatCalculationExport> {
         return metadata;
     }
 
-    private void writeJsonToFile(Map<String, Object> data, String filePath) throws IOException {
-        try (FileWriter fileWriter = new FileWriter(filePath)) {
-            objectMapper.writeValue(fileWriter, data);
+    /**
+     * นับจำนวน byte ที่ไหลผ่าน (ใช้วัดขนาดก่อนบีบอัด)
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
         }
     }
 }
@@ -0,0 +1,90 @@
+package com.example.batch.housekeeping.config;
+
+import com.example.batch.housekeeping.tasklet.BatchMetadataPurgeTasklet;
+import com.example.batch.shared.config.BatchJobMetricsListener;
+import com.example.batch.shared.config.BatchStepMetricsListener;
+import com.example.batch.shared.monitoring.JobExecutionReadModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Housekeeping job: ลบ Spring Batch metadata (BATCH_JOB_INSTANCE, BATCH_*_EXECUTION, BATCH_*_CONTEXT)
+ * ที่เก่ากว่า retention ทุก run ของ job อื่นได้ startTime parameter ใหม่ ตารางพวกนี้จึงโตไม่หยุด
+ * <p>
+ * ใช้ batchDataSource / batchTransactionManager ตัวเดียวกับ JobRepository
+ */
+@Configuration
+public class MetadataRetentionJobConfig {
+
+    private final JobRepository jobRepository;
+
+    // execution ที่จบก่อน (เวลาเริ่ม run - retention) จะถูกลบ
+    @Value("${batch.housekeeping.retention:30d}")
+    private Duration retention;
+
+    // จำนวน job executions ต่อ transaction
+    @Value("${batch.housekeeping.batch-size:500}")
+    private int batchSize;
+
+    // ว่าง = ลบอย่างเดียว, กำหนด directory = เขียน execution ที่ลบเป็น NDJSON ก่อนลบ
+    @Value("${batch.housekeeping.archive-directory:}")
+    private String archiveDirectory;
+
+    public MetadataRetentionJobConfig(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+
+    // Step scope: cutoff คำนวณครั้งเดียวต่อ run และแต่ละ run archive ลงไฟล์ของตัวเอง
+    @Bean
+    @StepScope
+    public BatchMetadataPurgeTasklet batchMetadataPurgeTasklet(
+            @Qualifier("batchDataSource") DataSource batchDataSource,
+            MeterRegistry meterRegistry,
+            @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId) {
+        Path archiveFile = archiveDirectory.isBlank() ? null
+                : Path.of(archiveDirectory).resolve("batch-metadata-archive-" + jobExecutionId + ".ndjson");
+        return new BatchMetadataPurgeTasklet(batchDataSource, meterRegistry, LocalDateTime.now().minus(retention),
+                batchSize, archiveFile);
+    }
+
+    @Bean
+    public Step purgeBatchMetadataStep(
+            @Qualifier("batchTransactionManager") PlatformTransactionManager transactionManager,
+            BatchMetadataPurgeTasklet batchMetadataPurgeTasklet,
+            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener,
+            JobExecutionReadModel jobExecutionReadModel) {
+        return new StepBuilder("purgeBatchMetadataStep", jobRepository)
+                .tasklet(batchMetadataPurgeTasklet, transactionManager)
+                .listener((StepExecutionListener) stepMetricsListener)
+                .listener(jobExecutionReadModel)
+                .build();
+    }
+
+    // Job สำหรับ housekeeping ของ batch metadata
+    @Bean
+    public Job metadataRetentionJob(Step purgeBatchMetadataStep,
+            @Qualifier("batchJobMetricsListener") BatchJobMetricsListener jobMetricsListener,
+            JobExecutionReadModel jobExecutionReadModel) {
+        return new JobBuilder("metadataRetentionJob", jobRepository)
+                .start(purgeBatchMetadataStep)
+                .listener(jobMetricsListener)
+                .listener(jobExecutionReadModel)
+                .build();
+    }
+}
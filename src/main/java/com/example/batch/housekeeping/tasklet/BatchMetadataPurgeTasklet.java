@@ -0,0 +1,172 @@
+package com.example.batch.housekeeping.tasklet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * ลบ (และ archive ถ้ากำหนด directory) Spring Batch metadata ของ job executions ที่จบก่อน cutoff
+ * <p>
+ * ทุกครั้งที่ execute จะจัดการไม่เกิน {@code batchSize} executions แล้วคืน CONTINUABLE
+ * แต่ละรอบจึงเป็น transaction สั้น ๆ ของตัวเอง ไม่ lock ตาราง metadata นาน และ restart ต่อได้
+ * <p>
+ * ลบตามลำดับ foreign key: step context -> step -> job context -> params -> job execution
+ * แล้วลบ job instance ที่ไม่เหลือ execution แล้ว (execution ที่ยังรันอยู่หรือไม่มี END_TIME ไม่ถูกแตะ)
+ */
+public class BatchMetadataPurgeTasklet implements Tasklet {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchMetadataPurgeTasklet.class);
+
+    static final String PURGED_COUNTER = "batch.metadata.purged";
+    private static final String TABLE_TAG = "table";
+
+    private static final String SELECT_EXPIRED_SQL = "SELECT JOB_EXECUTION_ID, JOB_INSTANCE_ID FROM BATCH_JOB_EXECUTION "
+            + "WHERE END_TIME IS NOT NULL AND END_TIME < :cutoff "
+            + "AND STATUS NOT IN ('STARTING', 'STARTED', 'STOPPING') "
+            + "ORDER BY JOB_EXECUTION_ID LIMIT :limit";
+
+    private static final String STEP_IDS = "SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids)";
+
+    // ลำดับตาม foreign key (ตารางลูกก่อน)
+    private static final Map<String, String> DELETE_SQL = deleteStatements();
+
+    private static final String DELETE_ORPHAN_INSTANCES_SQL = "DELETE FROM BATCH_JOB_INSTANCE "
+            + "WHERE JOB_INSTANCE_ID IN (:instanceIds) AND NOT EXISTS "
+            + "(SELECT 1 FROM BATCH_JOB_EXECUTION e WHERE e.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final LocalDateTime cutoff;
+    private final int batchSize;
+    private final Path archiveFile;
+    // MySQL driver คืน DATETIME เป็น LocalDateTime
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * @param archiveFile ไฟล์ NDJSON ที่จะ append execution ที่ถูกลบ (null = ลบอย่างเดียว)
+     */
+    public BatchMetadataPurgeTasklet(DataSource batchDataSource, MeterRegistry meterRegistry, LocalDateTime cutoff,
+            int batchSize, Path archiveFile) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1, got " + batchSize);
+        }
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(batchDataSource);
+        this.meterRegistry = meterRegistry;
+        this.cutoff = cutoff;
+        this.batchSize = batchSize;
+        this.archiveFile = archiveFile;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        List<Map<String, Object>> expired = jdbcTemplate.queryForList(SELECT_EXPIRED_SQL,
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)).addValue("limit", batchSize));
+        if (expired.isEmpty()) {
+            logger.info("No batch metadata older than {} left to purge", cutoff);
+            return RepeatStatus.FINISHED;
+        }
+
+        List<Long> executionIds = expired.stream()
+                .map(row -> ((Number) row.get("JOB_EXECUTION_ID")).longValue())
+                .toList();
+        List<Long> instanceIds = expired.stream()
+                .map(row -> ((Number) row.get("JOB_INSTANCE_ID")).longValue())
+                .distinct()
+                .toList();
+
+        if (archiveFile != null) {
+            archive(executionIds);
+        }
+
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", executionIds)
+                .addValue("instanceIds", instanceIds);
+        for (Map.Entry<String, String> delete : DELETE_SQL.entrySet()) {
+            recordPurged(delete.getKey(), jdbcTemplate.update(delete.getValue(), ids));
+        }
+        recordPurged("BATCH_JOB_INSTANCE", jdbcTemplate.update(DELETE_ORPHAN_INSTANCES_SQL, ids));
+
+        contribution.incrementWriteCount(executionIds.size());
+        logger.info("Purged {} job executions (ids {}..{}) older than {}", executionIds.size(),
+                executionIds.get(0), executionIds.get(executionIds.size() - 1), cutoff);
+
+        return executionIds.size() < batchSize ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+
+    // แต่ละบรรทัด = job execution หนึ่งตัวพร้อม params และ steps (ไม่รวม execution context)
+    // ถ้า transaction rollback หลังเขียนไฟล์แล้ว รอบถัดไปจะเขียนซ้ำได้ (execution id เป็นตัว dedupe)
+    private void archive(List<Long> executionIds) {
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", executionIds);
+        Map<Object, List<Map<String, Object>>> params = groupByExecution(jdbcTemplate.queryForList(
+                "SELECT * FROM BATCH_JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (:ids)", ids));
+        Map<Object, List<Map<String, Object>>> steps = groupByExecution(jdbcTemplate.queryForList(
+                "SELECT * FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids) ORDER BY STEP_EXECUTION_ID", ids));
+        List<Map<String, Object>> executions = jdbcTemplate.queryForList(
+                "SELECT e.*, i.JOB_NAME FROM BATCH_JOB_EXECUTION e JOIN BATCH_JOB_INSTANCE i "
+                        + "ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID WHERE e.JOB_EXECUTION_ID IN (:ids) "
+                        + "ORDER BY e.JOB_EXECUTION_ID", ids);
+        try {
+            Files.createDirectories(archiveFile.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(archiveFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Map<String, Object> execution : executions) {
+                    Object id = execution.get("JOB_EXECUTION_ID");
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    record.put("jobExecution", execution);
+                    record.put("parameters", params.getOrDefault(id, List.of()));
+                    record.put("steps", steps.getOrDefault(id, List.of()));
+                    writer.write(objectMapper.writeValueAsString(record));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to archive batch metadata to " + archiveFile, e);
+        }
+    }
+
+    private void recordPurged(String table, int rows) {
+        meterRegistry.counter(PURGED_COUNTER, TABLE_TAG, table.toLowerCase()).increment(rows);
+    }
+
+    private static Map<Object, List<Map<String, Object>>> groupByExecution(List<Map<String, Object>> rows) {
+        return rows.stream().collect(Collectors.groupingBy(row -> row.get("JOB_EXECUTION_ID")));
+    }
+
+    private static Map<String, String> deleteStatements() {
+        Map<String, String> statements = new LinkedHashMap<>();
+        statements.put("BATCH_STEP_EXECUTION_CONTEXT",
+                "DELETE FROM BATCH_STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN (" + STEP_IDS + ")");
+        statements.put("BATCH_STEP_EXECUTION", "DELETE FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids)");
+        statements.put("BATCH_JOB_EXECUTION_CONTEXT",
+                "DELETE FROM BATCH_JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID IN (:ids)");
+        statements.put("BATCH_JOB_EXECUTION_PARAMS",
+                "DELETE FROM BATCH_JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (:ids)");
+        statements.put("BATCH_JOB_EXECUTION", "DELETE FROM BATCH_JOB_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids)");
+        return statements;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.batch.shared.chunk;
+
+import com.example.batch.shared.config.BatchStepMetricsListener.ChunkWriteSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Chunk completion policy ที่ปรับขนาด chunk ระหว่างรันให้เวลา write ต่อ chunk ใกล้ target
+ * <p>
+ * ก่อนเริ่มแต่ละ chunk จะดู write ล่าสุดจาก {@code BatchStepMetricsListener} (items และเวลา)
+ * เฉลี่ยเวลาต่อ item แบบ exponential moving average แล้วตั้งขนาดใหม่ = target / เวลาต่อ item
+ * โดยเปลี่ยนได้ไม่เกิน 2 เท่า (ขึ้นหรือลง) ต่อ chunk และอยู่ในช่วง [minSize, maxSize]
+ * <p>
+ * สร้างหนึ่ง instance ต่อ step execution (step scope) จึงไม่ต้อง synchronize
+ */
+public class AdaptiveChunkCompletionPolicy extends SimpleCompletionPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveChunkCompletionPolicy.class);
+
+    // น้ำหนักของ sample ใหม่ใน moving average
+    private static final double SMOOTHING = 0.5;
+    private static final int MAX_STEP_FACTOR = 2;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetWriteNanos;
+    private final Supplier<ChunkWriteSample> lastChunkWrite;
+
+    private ChunkWriteSample lastSample;
+    private double nanosPerItem;
+
+    public AdaptiveChunkCompletionPolicy(int initialSize, int minSize, int maxSize, Duration targetWriteTime,
+            Supplier<ChunkWriteSample> lastChunkWrite) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid adaptive chunk size range [" + minSize + ", " + maxSize + "]");
+        }
+        if (targetWriteTime.isNegative() || targetWriteTime.isZero()) {
+            throw new IllegalArgumentException("Target write time must be positive, got " + targetWriteTime);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetWriteNanos = targetWriteTime.toNanos();
+        this.lastChunkWrite = lastChunkWrite;
+        setChunkSize(clamp(initialSize));
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext context) {
+        adjust();
+        return super.start(context);
+    }
+
+    private void adjust() {
+        ChunkWriteSample sample = lastChunkWrite.get();
+        // ยังไม่มี write ใหม่ตั้งแต่รอบก่อน (เช่น chunk ที่ถูก filter ทั้งหมด) หรือ chunk ว่าง
+        if (sample == null || sample == lastSample || sample.items() == 0) {
+            return;
+        }
+        lastSample = sample;
+        double observed = (double) sample.nanos() / sample.items();
+        nanosPerItem = nanosPerItem == 0 ? observed : SMOOTHING * observed + (1 - SMOOTHING) * nanosPerItem;
+
+        int current = getChunkSize();
+        long ideal = nanosPerItem > 0 ? Math.round(targetWriteNanos / nanosPerItem) : (long) maxSize;
+        long bounded = Math.max((long) current / MAX_STEP_FACTOR, Math.min((long) current * MAX_STEP_FACTOR, ideal));
+        int next = clamp(bounded);
+        if (next != current) {
+            logger.debug("Chunk size {} -> {} (last write {} items in {} ms, target {} ms)", current, next,
+                    sample.items(), sample.nanos() / 1_000_000, targetWriteNanos / 1_000_000);
+            setChunkSize(next);
+        }
+    }
+
+    private int clamp(long size) {
+        return (int) Math.max(minSize, Math.min(maxSize, size));
+    }
+}
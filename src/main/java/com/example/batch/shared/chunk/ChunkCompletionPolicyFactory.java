@@ -0,0 +1,76 @@
+package com.example.batch.shared.chunk;
+
+import com.example.batch.shared.config.BatchStepMetricsListener;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.time.Duration;
+
+/**
+ * สร้าง chunk completion policy ต่อ step execution จาก job parameters
+ * <p>
+ * {@code chunkSize} (commit interval) override ค่าจาก properties ของแต่ละ job
+ * และ {@code adaptiveChunk=true|false} override {@code batch.chunk.adaptive.enabled}
+ */
+public class ChunkCompletionPolicyFactory {
+
+    public static final String CHUNK_SIZE_PARAMETER = "chunkSize";
+    public static final String ADAPTIVE_PARAMETER = "adaptiveChunk";
+
+    private final BatchStepMetricsListener stepMetricsListener;
+    private final boolean adaptiveEnabled;
+    private final int adaptiveMinSize;
+    private final int adaptiveMaxSize;
+    private final Duration targetWriteTime;
+
+    public ChunkCompletionPolicyFactory(BatchStepMetricsListener stepMetricsListener, boolean adaptiveEnabled,
+            int adaptiveMinSize, int adaptiveMaxSize, Duration targetWriteTime) {
+        this.stepMetricsListener = stepMetricsListener;
+        this.adaptiveEnabled = adaptiveEnabled;
+        this.adaptiveMinSize = adaptiveMinSize;
+        this.adaptiveMaxSize = adaptiveMaxSize;
+        this.targetWriteTime = targetWriteTime;
+    }
+
+    /**
+     * @param defaultChunkSize ขนาด chunk เมื่อไม่มี job parameter (ขนาดเริ่มต้นในโหมด adaptive)
+     */
+    public CompletionPolicy create(StepExecution stepExecution, int defaultChunkSize) {
+        JobParameters parameters = stepExecution.getJobParameters();
+        int chunkSize = positiveInt(CHUNK_SIZE_PARAMETER, value(parameters, CHUNK_SIZE_PARAMETER), defaultChunkSize);
+        Object adaptive = value(parameters, ADAPTIVE_PARAMETER);
+        if (adaptive != null ? Boolean.parseBoolean(adaptive.toString()) : adaptiveEnabled) {
+            Long stepExecutionId = stepExecution.getId();
+            return new AdaptiveChunkCompletionPolicy(chunkSize, adaptiveMinSize, adaptiveMaxSize, targetWriteTime,
+                    () -> stepMetricsListener.lastChunkWrite(stepExecutionId));
+        }
+        return new SimpleCompletionPolicy(chunkSize);
+    }
+
+    /**
+     * แปลงค่า job parameter (String จาก command line/REST หรือ Long) เป็น int ที่มากกว่า 0
+     */
+    public static int positiveInt(String name, Object value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+        }
+        if (parsed < 1) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value + " (must be at least 1)");
+        }
+        return parsed;
+    }
+
+    private static Object value(JobParameters parameters, String name) {
+        JobParameter<?> parameter = parameters.getParameter(name);
+        return parameter != null ? parameter.getValue() : null;
+    }
+}
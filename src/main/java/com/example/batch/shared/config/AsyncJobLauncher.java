@@ -0,0 +1,59 @@
+package com.example.batch.shared.config;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Launch job บน TaskExecutor แล้วคืน execution ทันที และ throw {@link TaskRejectedException} เมื่อ executor เต็ม
+ * <p>
+ * TaskExecutorJobLauncher จับ TaskRejectedException ไว้เอง บันทึก execution เป็น FAILED แล้วคืนค่าตามปกติ
+ * caller จึงแยกไม่ออกจาก job ที่เริ่มแล้ว ตัวนี้ห่อ executor เพื่อจำว่าการ submit ของ thread ที่เรียก run ถูกปฏิเสธ
+ * แล้ว throw ต่อให้ REST API ตอบ 503 ได้ (job ที่เริ่มแล้วแต่ fail เพราะ executor ของ step ปฏิเสธงานจะไม่ถูกนับ)
+ * <p>
+ * ไม่ implement JobLauncher เพื่อให้ {@code jobLauncher} (synchronous) ยังเป็น JobLauncher bean ตัวเดียวใน context
+ */
+public class AsyncJobLauncher {
+
+    private final TaskExecutorJobLauncher delegate = new TaskExecutorJobLauncher();
+
+    // TaskExecutorJobLauncher submit งานบน thread ที่เรียก run จึงเก็บผลการปฏิเสธต่อ thread ได้
+    private final ThreadLocal<TaskRejectedException> rejection = new ThreadLocal<>();
+
+    public AsyncJobLauncher(JobRepository jobRepository, TaskExecutor taskExecutor) throws Exception {
+        delegate.setJobRepository(jobRepository);
+        delegate.setTaskExecutor(task -> {
+            try {
+                taskExecutor.execute(task);
+            } catch (TaskRejectedException e) {
+                rejection.set(e);
+                throw e;
+            }
+        });
+        delegate.afterPropertiesSet();
+    }
+
+    public JobExecution run(Job job, JobParameters jobParameters) throws JobExecutionAlreadyRunningException,
+            JobRestartException, JobInstanceAlreadyCompleteException, JobParametersInvalidException {
+        rejection.remove();
+        try {
+            JobExecution jobExecution = delegate.run(job, jobParameters);
+            TaskRejectedException rejected = rejection.get();
+            if (rejected != null) {
+                throw new TaskRejectedException("Job launcher queue is full, execution " + jobExecution.getId()
+                        + " of " + job.getName() + " was not started", rejected);
+            }
+            return jobExecution;
+        } finally {
+            rejection.remove();
+        }
+    }
+}
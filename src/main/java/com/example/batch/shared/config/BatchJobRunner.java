@@ -34,6 +34,7 @@ public class BatchJobRunner implements CommandLineRunner {
     public BatchJobRunner(JobLauncher jobLauncher,
             @Qualifier("vatCalculationJob") Job vatCalculationJob,
             @Qualifier("exportVatCalculationsJob") Job exportVatCalculationsJob,
+            @Qualifier("metadataRetentionJob") Job metadataRetentionJob,
             ApplicationContext applicationContext) {
         this.jobLauncher = jobLauncher;
         this.applicationContext = applicationContext;
@@ -42,6 +43,8 @@ public class BatchJobRunner implements CommandLineRunner {
         this.jobs.put("export-json", exportVatCalculationsJob);
         this.jobs.put("vatCalculationJob", vatCalculationJob);
         this.jobs.put("exportVatCalculationsJob", exportVatCalculationsJob);
+        this.jobs.put("metadata-retention", metadataRetentionJob);
+        this.jobs.put("metadataRetentionJob", metadataRetentionJob);
     }
 
     @Override
@@ -53,7 +56,7 @@ public class BatchJobRunner implements CommandLineRunner {
 
         if (requestedJob != null) {
             logger.info("🎯 Running specific job from command line: {}", requestedJob);
-            boolean success = executeJob(requestedJob);
+            boolean success = executeJob(requestedJob, args);
             exitApplicationIfConfigured(success);
             return;
         }
@@ -67,16 +70,22 @@ public class BatchJobRunner implements CommandLineRunner {
             logger.info("   java -jar app.jar --job=export-json");
             logger.info("   java -jar app.jar --job=vatCalculationJob");
             logger.info("   java -jar app.jar --job=exportVatCalculationsJob");
+            logger.info("   java -jar app.jar --job=export-json format=ndjson compression=gzip");
+            logger.info("   java -jar app.jar --job=vat-calculation chunkSize=1000 adaptiveChunk=true");
+            logger.info("   java -jar app.jar --job=vat-calculation inputPath=/app/data/input");
+            logger.info("   java -jar app.jar --job=metadata-retention");
             logger.info("🌐 REST API Endpoints:");
             logger.info("   - POST /api/batch/run/vat-calculation");
             logger.info("   - POST /api/batch/run/export-json");
+            logger.info("   - POST /api/batch/run/metadata-retention");
+            logger.info("   - POST /api/batch/executions/{id}/restart");
             logger.info("   - GET  /api/batch/jobs (monitoring)");
             return;
         }
 
         // Default behavior when auto-run is enabled (run VAT calculation job)
         logger.info("🚀 Auto-run enabled: Starting default VAT Calculation Batch Job...");
-        boolean success = executeJob("vat-calculation");
+        boolean success = executeJob("vat-calculation", args);
         exitApplicationIfConfigured(success);
     }
 
@@ -89,7 +98,19 @@ public class BatchJobRunner implements CommandLineRunner {
         return null;
     }
 
-    private boolean executeJob(String jobName) throws Exception {
+    /**
+     * Argument ที่ไม่ใช่ option (ไม่ขึ้นต้นด้วย "--") ในรูป key=value จะถูกส่งเป็น job parameter
+     */
+    private void addJobParameterArguments(JobParametersBuilder builder, String... args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") && separator > 0) {
+                builder.addString(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+    }
+
+    private boolean executeJob(String jobName, String... args) throws Exception {
         Job job = jobs.get(jobName);
         if (job == null) {
             logger.error("❌ Job '{}' not found. Available jobs: {}", jobName, jobs.keySet());
@@ -99,10 +120,11 @@ public class BatchJobRunner implements CommandLineRunner {
         logger.info("🚀 Starting job: {} ({})", jobName, job.getName());
 
         try {
-            JobParameters jobParameters = new JobParametersBuilder()
+            JobParametersBuilder builder = new JobParametersBuilder()
                     .addLong("startTime", System.currentTimeMillis())
-                    .addString("jobName", jobName)
-                    .toJobParameters();
+                    .addString("jobName", jobName);
+            addJobParameterArguments(builder, args);
+            JobParameters jobParameters = builder.toJobParameters();
 
             var jobExecution = jobLauncher.run(job, jobParameters);
 
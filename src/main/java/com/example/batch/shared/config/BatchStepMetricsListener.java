@@ -1,65 +1,376 @@
 package com.example.batch.shared.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.Chunk;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Step execution listener for detailed step metrics
+ * Step, chunk and item listener for detailed step metrics
+ * <p>
+ * Partition step executions are named {@code workerStep:partitionN} by Spring Batch,
+ * so they are reported under the worker step name with a {@code partition} tag.
+ * The percentile histogram timers leave the partition tag out (one bucket set per worker step,
+ * not per partition); counters, the step duration timer and the throughput gauges keep it.
+ * The throughput gauges are removed once no running step execution reports under their tags.
+ * <p>
+ * The bean is a singleton shared by every job and partition, so all timing state is kept
+ * per {@link StepExecution} (keyed by its id) and removed again in {@link #afterStep}.
+ * Item and chunk callbacks of one step execution always run on that step's thread, so the
+ * per-execution state itself needs no locking.
  */
-public class BatchStepMetricsListener implements StepExecutionListener {
+public class BatchStepMetricsListener implements StepExecutionListener, ChunkListener,
+        ItemReadListener<Object>, ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
 
     // Constants for tag names
     private static final String JOB_NAME_TAG = "job_name";
     private static final String STEP_NAME_TAG = "step_name";
+    private static final String PARTITION_TAG = "partition";
     private static final String STATUS_TAG = "status";
+    private static final String OPERATION_TAG = "operation";
+
+    private static final String NO_PARTITION = "none";
+    private static final char PARTITION_SEPARATOR = ':';
+
+    private static final String OPERATION_READ = "read";
+    private static final String OPERATION_PROCESS = "process";
+    private static final String OPERATION_WRITE = "write";
 
     private final MeterRegistry meterRegistry;
-    private Timer.Sample sample;
+
+    // state ของ step execution ที่กำลังรันอยู่ (หลาย job/partition พร้อมกันได้)
+    private final Map<Long, StepMetrics> activeSteps = new ConcurrentHashMap<>();
+
+    // ค่า throughput ต่อ job/step/partition ที่ gauge อ่าน ลบออกเมื่อ step execution สุดท้ายของ tag ชุดนั้นจบ
+    private final Map<Tags, Throughput> throughputs = new ConcurrentHashMap<>();
 
     public BatchStepMetricsListener(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
     }
 
+    /**
+     * Register every callback of this listener on a chunk-oriented step.
+     * {@code SimpleStepBuilder.listener(Object)} only picks up annotated listeners,
+     * so each listener interface has to be registered through its typed overload.
+     */
+    public <I, O> SimpleStepBuilder<I, O> registerOn(SimpleStepBuilder<I, O> builder) {
+        builder.listener((StepExecutionListener) this);
+        builder.listener((ChunkListener) this);
+        builder.listener((ItemReadListener<Object>) this);
+        builder.listener((ItemProcessListener<Object, Object>) this);
+        builder.listener((ItemWriteListener<Object>) this);
+        return builder;
+    }
+
     @Override
     public void beforeStep(StepExecution stepExecution) {
-        String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
-        String stepName = stepExecution.getStepName();
+        Tags tags = stepTags(stepExecution);
 
         // Start timing the step
-        sample = Timer.start(meterRegistry);
+        activeSteps.put(stepExecution.getId(), new StepMetrics(tags, Timer.start(meterRegistry)));
 
         // Record step start
-        meterRegistry.counter("batch.step.started",
-                JOB_NAME_TAG, jobName,
-                STEP_NAME_TAG, stepName)
-                .increment();
+        meterRegistry.counter("batch.step.started", tags).increment();
     }
 
     @Override
     public ExitStatus afterStep(StepExecution stepExecution) {
-        String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
-        String stepName = stepExecution.getStepName();
-        String status = stepExecution.getStatus().toString();
+        StepMetrics metrics = activeSteps.remove(stepExecution.getId());
+        Tags tags = metrics != null ? metrics.tags : stepTags(stepExecution);
+        Tags statusTags = tags.and(STATUS_TAG, stepExecution.getStatus().toString());
 
         // Stop timing and record step duration
-        if (sample != null) {
-            sample.stop(Timer.builder("batch.step.duration")
-                    .tag(JOB_NAME_TAG, jobName)
-                    .tag(STEP_NAME_TAG, stepName)
-                    .tag(STATUS_TAG, status)
-                    .register(meterRegistry));
+        if (metrics != null) {
+            metrics.stepSample.stop(meterRegistry.timer("batch.step.duration", statusTags));
+            releaseThroughput(tags);
         }
 
         // Record step completion
-        meterRegistry.counter("batch.step.completed",
-                JOB_NAME_TAG, jobName,
-                STEP_NAME_TAG, stepName,
-                STATUS_TAG, status)
-                .increment();
+        meterRegistry.counter("batch.step.completed", statusTags).increment();
 
         return null;
     }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepMetrics metrics = metrics(context.getStepContext());
+        if (metrics != null) {
+            metrics.chunkStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepMetrics metrics = metrics(context.getStepContext());
+        if (metrics != null) {
+            metrics.chunkTimer.record(System.nanoTime() - metrics.chunkStart, TimeUnit.NANOSECONDS);
+            metrics.updateThroughput(context.getStepContext().getStepExecution());
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        StepMetrics metrics = metrics(context.getStepContext());
+        if (metrics != null) {
+            metrics.chunkErrors.increment();
+        }
+    }
+
+    @Override
+    public void beforeRead() {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.readStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.readTimer.record(System.nanoTime() - metrics.readStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.readErrors.increment();
+        }
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.processStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.processTimer.record(System.nanoTime() - metrics.processStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.processErrors.increment();
+        }
+    }
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.writeStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            long elapsed = System.nanoTime() - metrics.writeStart;
+            metrics.writeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            metrics.lastWrite = new ChunkWriteSample(items.size(), elapsed);
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        StepMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.writeErrors.increment();
+        }
+    }
+
+    /**
+     * Write of the most recent chunk of a running step execution,
+     * or null before its first write (and after the step has finished).
+     * Every chunk write produces a new sample instance.
+     */
+    public ChunkWriteSample lastChunkWrite(Long stepExecutionId) {
+        StepMetrics metrics = activeSteps.get(stepExecutionId);
+        return metrics != null ? metrics.lastWrite : null;
+    }
+
+    // จำนวน step execution ที่ยังไม่จบ (ใช้ใน test ตรวจว่าไม่มี state ค้าง)
+    int activeStepCount() {
+        return activeSteps.size();
+    }
+
+    // จำนวนชุด tag ที่ยังมี throughput gauge อยู่
+    int throughputGaugeCount() {
+        return throughputs.size();
+    }
+
+    // item listener ไม่ได้รับ StepExecution มา จึงหาเอาจาก step context ของ thread ปัจจุบัน
+    private StepMetrics currentMetrics() {
+        StepContext context = StepSynchronizationManager.getContext();
+        return context != null ? metrics(context) : null;
+    }
+
+    private StepMetrics metrics(StepContext context) {
+        return activeSteps.get(context.getStepExecution().getId());
+    }
+
+    private static Tags stepTags(StepExecution stepExecution) {
+        return Tags.of(
+                JOB_NAME_TAG, stepExecution.getJobExecution().getJobInstance().getJobName(),
+                STEP_NAME_TAG, stepName(stepExecution),
+                PARTITION_TAG, partition(stepExecution));
+    }
+
+    private static String stepName(StepExecution stepExecution) {
+        String name = stepExecution.getStepName();
+        int separator = name.indexOf(PARTITION_SEPARATOR);
+        return separator < 0 ? name : name.substring(0, separator);
+    }
+
+    private static String partition(StepExecution stepExecution) {
+        String name = stepExecution.getStepName();
+        int separator = name.indexOf(PARTITION_SEPARATOR);
+        return separator < 0 ? NO_PARTITION : name.substring(separator + 1);
+    }
+
+    private static Tags withoutPartition(Tags tags) {
+        return Tags.of(tags.stream().filter(tag -> !PARTITION_TAG.equals(tag.getKey())).toList());
+    }
+
+    private Timer histogramTimer(String name, Tags tags, Duration min, Duration max) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(min)
+                .maximumExpectedValue(max)
+                .register(meterRegistry);
+    }
+
+    private Counter errorCounter(Tags tags, String operation) {
+        return meterRegistry.counter("batch.item.errors", tags.and(OPERATION_TAG, operation));
+    }
+
+    // step execution ที่ tag ซ้ำกัน (เช่น restart ขณะตัวเดิมยังไม่จบ) ใช้ gauge ชุดเดียวกัน นับจำนวนผู้ใช้ไว้
+    private Throughput acquireThroughput(Tags tags) {
+        return throughputs.compute(tags, (key, existing) -> {
+            Throughput throughput = existing != null ? existing : registerThroughput(key);
+            throughput.users++;
+            return throughput;
+        });
+    }
+
+    private void releaseThroughput(Tags tags) {
+        throughputs.computeIfPresent(tags, (key, throughput) -> {
+            if (--throughput.users > 0) {
+                return throughput;
+            }
+            throughput.gauges.forEach(meterRegistry::remove);
+            return null;
+        });
+    }
+
+    private Throughput registerThroughput(Tags tags) {
+        Throughput throughput = new Throughput();
+        throughput.gauges.add(Gauge.builder("batch.step.throughput", throughput, t -> t.readPerSecond)
+                .tags(tags.and(OPERATION_TAG, OPERATION_READ))
+                .baseUnit("items.per.second")
+                .register(meterRegistry));
+        throughput.gauges.add(Gauge.builder("batch.step.throughput", throughput, t -> t.writePerSecond)
+                .tags(tags.and(OPERATION_TAG, OPERATION_WRITE))
+                .baseUnit("items.per.second")
+                .register(meterRegistry));
+        return throughput;
+    }
+
+    /**
+     * Items and write time of one chunk write
+     */
+    public record ChunkWriteSample(int items, long nanos) {
+    }
+
+    // ค่าที่ gauge อ่าน อัปเดตทุก chunk จาก read/write count ของ step execution
+    private static final class Throughput {
+        private final List<Gauge> gauges = new ArrayList<>(2);
+        private int users; // แก้เฉพาะใน compute ของ throughputs
+        private volatile double readPerSecond;
+        private volatile double writePerSecond;
+    }
+
+    // Meters และเวลาเริ่มของ step execution หนึ่งตัว
+    private final class StepMetrics {
+        private final Tags tags;
+        private final Timer.Sample stepSample;
+        private final long stepStart = System.nanoTime();
+
+        private final Timer readTimer;
+        private final Timer processTimer;
+        private final Timer writeTimer;
+        private final Timer chunkTimer;
+        private final Counter readErrors;
+        private final Counter processErrors;
+        private final Counter writeErrors;
+        private final Counter chunkErrors;
+        private final Throughput throughput;
+
+        private long readStart;
+        private long processStart;
+        private long writeStart;
+        private long chunkStart;
+        private volatile ChunkWriteSample lastWrite;
+
+        private StepMetrics(Tags tags, Timer.Sample stepSample) {
+            this.tags = tags;
+            this.stepSample = stepSample;
+            // histogram มีหลายสิบ bucket ต่อ series: รวมทุก partition ไว้ใต้ worker step
+            Tags histogramTags = withoutPartition(tags);
+            this.readTimer = histogramTimer("batch.item.read", histogramTags,
+                    Duration.ofNanos(1_000), Duration.ofSeconds(10));
+            this.processTimer = histogramTimer("batch.item.process", histogramTags,
+                    Duration.ofNanos(1_000), Duration.ofSeconds(10));
+            this.writeTimer = histogramTimer("batch.chunk.write", histogramTags,
+                    Duration.ofMillis(1), Duration.ofMinutes(5));
+            this.chunkTimer = histogramTimer("batch.chunk.duration", histogramTags,
+                    Duration.ofMillis(1), Duration.ofMinutes(5));
+            this.readErrors = errorCounter(tags, OPERATION_READ);
+            this.processErrors = errorCounter(tags, OPERATION_PROCESS);
+            this.writeErrors = errorCounter(tags, OPERATION_WRITE);
+            this.chunkErrors = meterRegistry.counter("batch.chunk.errors", tags);
+            this.throughput = acquireThroughput(tags);
+        }
+
+        private void updateThroughput(StepExecution stepExecution) {
+            double seconds = (System.nanoTime() - stepStart) / 1_000_000_000.0;
+            if (seconds <= 0) {
+                return;
+            }
+            throughput.readPerSecond = stepExecution.getReadCount() / seconds;
+            throughput.writePerSecond = stepExecution.getWriteCount() / seconds;
+        }
+    }
 }
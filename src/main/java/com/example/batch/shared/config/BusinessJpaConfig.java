@@ -1,6 +1,8 @@
 package com.example.batch.shared.config;
 
+import com.example.batch.shared.id.PooledIdAllocator;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,12 +14,21 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
 import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
 
 @Configuration
 @EnableTransactionManagement
 @EnableJpaRepositories(basePackages = "com.example.batch.shared.repository", entityManagerFactoryRef = "businessEntityManagerFactory", transactionManagerRef = "businessTransactionManager")
 public class BusinessJpaConfig {
 
+    // ใช้ได้เพราะ PriceCalculation ไม่ใช้ IDENTITY แล้ว (IDENTITY บังคับ INSERT ทันทีทีละแถว)
+    @Value("${batch.jpa.jdbc-batch-size:1000}")
+    private int jdbcBatchSize;
+
+    // จำนวน ID ที่จองต่อการเข้าตาราง id_allocator หนึ่งครั้ง
+    @Value("${batch.id-allocator.allocation-size:1000}")
+    private int idAllocationSize;
+
     @Bean(name = "businessEntityManagerFactory")
     public LocalContainerEntityManagerFactoryBean businessEntityManagerFactory(
             EntityManagerFactoryBuilder builder,
@@ -27,6 +38,10 @@ public class BusinessJpaConfig {
                 .dataSource(businessDataSource)
                 .packages("com.example.batch.vatcalculation.model", "com.example.batch.exportjson.model")
                 .persistenceUnit("business")
+                .properties(Map.of(
+                        "hibernate.jdbc.batch_size", jdbcBatchSize,
+                        "hibernate.order_inserts", true,
+                        "hibernate.order_updates", true))
                 .build();
     }
 
@@ -35,4 +50,10 @@ public class BusinessJpaConfig {
             @Qualifier("businessEntityManagerFactory") EntityManagerFactory businessEntityManagerFactory) {
         return new JpaTransactionManager(businessEntityManagerFactory);
     }
+
+    @Bean
+    public PooledIdAllocator priceCalculationIdAllocator(
+            @Qualifier("businessDataSource") DataSource businessDataSource) {
+        return new PooledIdAllocator(businessDataSource, "price_calculations", idAllocationSize);
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.batch.shared.config;
+
+import com.example.batch.shared.chunk.ChunkCompletionPolicyFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Chunk size (commit interval) ของ chunk steps: ค่าคงที่จาก properties / job parameter
+ * หรือ adaptive ตามเวลา write ที่ BatchStepMetricsListener วัดได้
+ */
+@Configuration
+public class ChunkConfig {
+
+    @Bean
+    public ChunkCompletionPolicyFactory chunkCompletionPolicyFactory(
+            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener,
+            @Value("${batch.chunk.adaptive.enabled:false}") boolean adaptiveEnabled,
+            @Value("${batch.chunk.adaptive.min-size:10}") int adaptiveMinSize,
+            @Value("${batch.chunk.adaptive.max-size:10000}") int adaptiveMaxSize,
+            @Value("${batch.chunk.adaptive.target-write-time:500ms}") Duration targetWriteTime) {
+        return new ChunkCompletionPolicyFactory(stepMetricsListener, adaptiveEnabled, adaptiveMinSize,
+                adaptiveMaxSize, targetWriteTime);
+    }
+}
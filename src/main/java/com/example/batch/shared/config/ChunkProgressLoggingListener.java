@@ -0,0 +1,56 @@
+package com.example.batch.shared.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+/**
+ * Chunk listener that replaces per-item logging with a sampled per-chunk summary
+ * <p>
+ * Logs one INFO line every {@code logInterval} committed chunks and counts every
+ * committed chunk. It keeps no state of its own, so one instance can be shared by
+ * partition worker steps running on different threads.
+ */
+public class ChunkProgressLoggingListener implements ChunkListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkProgressLoggingListener.class);
+
+    private static final String JOB_NAME_TAG = "job_name";
+    private static final String STEP_NAME_TAG = "step_name";
+
+    private static final char PARTITION_SEPARATOR = ':';
+
+    private final MeterRegistry meterRegistry;
+    private final int logInterval;
+
+    public ChunkProgressLoggingListener(MeterRegistry meterRegistry, int logInterval) {
+        if (logInterval < 1) {
+            throw new IllegalArgumentException("batch.logging.chunk-summary-interval must be >= 1: " + logInterval);
+        }
+        this.meterRegistry = meterRegistry;
+        this.logInterval = logInterval;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+        String stepName = stepExecution.getStepName();
+
+        int separator = stepName.indexOf(PARTITION_SEPARATOR);
+        meterRegistry.counter("batch.chunk.committed",
+                JOB_NAME_TAG, jobName,
+                STEP_NAME_TAG, separator < 0 ? stepName : stepName.substring(0, separator))
+                .increment();
+
+        long commitCount = stepExecution.getCommitCount();
+        if (commitCount % logInterval == 0 && logger.isInfoEnabled()) {
+            logger.info("Step {} committed {} chunks: read={} written={} skipped={}",
+                    stepName, commitCount, stepExecution.getReadCount(), stepExecution.getWriteCount(),
+                    stepExecution.getSkipCount());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.batch.shared.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,9 +14,22 @@ import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
 
+/**
+ * DataSources สำหรับ Spring Batch metadata และ business data
+ * <p>
+ * แต่ละตัวเป็น Hikari pool แยกกัน (batch-pool / business-pool) ขนาดตั้งต้นคำนวณจากจำนวน
+ * step ที่รันพร้อมกัน และปรับได้ผ่าน {@code spring.datasource.hikari.*} /
+ * {@code business.datasource.hikari.*} Spring Boot Actuator จะ bind metric ของทั้งสอง pool
+ * ({@code hikaricp_connections_active}, {@code _pending}, {@code _acquire_seconds}) ให้เอง
+ */
 @Configuration
 public class DatabaseConfig {
 
+    static final String BATCH_POOL_NAME = "batch-pool";
+    static final String BUSINESS_POOL_NAME = "business-pool";
+
+    private static final String MYSQL_URL_PREFIX = "jdbc:mysql:";
+
     @Value("${spring.datasource.url}")
     private String batchUrl;
 
@@ -39,31 +54,65 @@ public class DatabaseConfig {
     @Value("${business.datasource.driver-class-name}")
     private String businessDriverClassName;
 
+    // จำนวน step execution ที่อาจรันพร้อมกัน (partition workers) ใช้คำนวณขนาด pool ตั้งต้น
+    @Value("${batch.vat-calculation.partition.enabled:false}")
+    private boolean partitionEnabled;
+
+    @Value("${batch.vat-calculation.partition.grid-size:4}")
+    private int gridSize;
+
     /**
      * Primary DataSource for Spring Batch metadata
+     * <p>
+     * ทุก step execution ที่รันอยู่ update JobRepository ด้วย connection ของตัวเอง
+     * บวกเผื่อให้ job launcher, manager step และ monitoring API
      */
     @Primary
     @Bean(name = "batchDataSource")
-    public DataSource batchDataSource() {
-        return DataSourceBuilder.create()
-                .url(batchUrl)
-                .username(batchUsername)
-                .password(batchPassword)
-                .driverClassName(batchDriverClassName)
-                .build();
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource batchDataSource() {
+        return pool(BATCH_POOL_NAME, batchUrl, batchUsername, batchPassword, batchDriverClassName,
+                stepConcurrency() + 4);
     }
 
     /**
      * Secondary DataSource for business data
+     * <p>
+     * แต่ละ step execution ถือ connection ของ chunk transaction และอาจขออีกหนึ่งชั่วคราว
+     * ตอน PooledIdAllocator จอง ID (REQUIRES_NEW)
      */
     @Bean(name = "businessDataSource")
-    public DataSource businessDataSource() {
-        return DataSourceBuilder.create()
-                .url(businessUrl)
-                .username(businessUsername)
-                .password(businessPassword)
-                .driverClassName(businessDriverClassName)
+    @ConfigurationProperties("business.datasource.hikari")
+    public HikariDataSource businessDataSource() {
+        return pool(BUSINESS_POOL_NAME, businessUrl, businessUsername, businessPassword, businessDriverClassName,
+                stepConcurrency() * 2 + 2);
+    }
+
+    private int stepConcurrency() {
+        return partitionEnabled ? Math.max(gridSize, 1) : 1;
+    }
+
+    // ค่าตั้งต้น; property ใต้ prefix hikari ของแต่ละ pool จะถูก bind ทับหลังจากนี้
+    private static HikariDataSource pool(String poolName, String url, String username, String password,
+            String driverClassName, int maximumPoolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .driverClassName(driverClassName)
                 .build();
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        if (url.startsWith(MYSQL_URL_PREFIX)) {
+            // server-side prepared statement + cache ฝั่ง driver และรวม batch INSERT เป็น multi-row
+            dataSource.addDataSourceProperty("cachePrepStmts", "true");
+            dataSource.addDataSourceProperty("prepStmtCacheSize", "250");
+            dataSource.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            dataSource.addDataSourceProperty("useServerPrepStmts", "true");
+            dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+        return dataSource;
     }
 
     /**
@@ -0,0 +1,42 @@
+package com.example.batch.shared.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Launcher ที่ REST API ใช้ launch jobs แบบ asynchronous เพื่อคืน execution id ทันที
+ * แทนการรอให้ job ทำงานจบบน Tomcat request thread
+ * <p>
+ * Launcher ปกติ ({@code jobLauncher}) ยังคงเป็นแบบ synchronous สำหรับ command line
+ * และเป็น JobLauncher bean ตัวเดียวใน context ส่วน {@code asyncJobLauncher} ปฏิเสธงานเมื่อ queue เต็ม
+ * (ไม่รัน job บน request thread)
+ */
+@Configuration
+public class JobLauncherConfig {
+
+    @Value("${batch.launcher.max-concurrent-jobs:0}")
+    private int maxConcurrentJobs;
+
+    @Value("${batch.launcher.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${batch.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public TaskExecutor jobLauncherTaskExecutor(MeterRegistry meterRegistry) {
+        return TaskExecutorFactory.create("job-launcher-", maxConcurrentJobs, queueCapacity, virtualThreads,
+                new MeteredTaskDecorator("jobLauncherTaskExecutor", meterRegistry), true);
+    }
+
+    @Bean
+    public AsyncJobLauncher asyncJobLauncher(JobRepository jobRepository,
+            @Qualifier("jobLauncherTaskExecutor") TaskExecutor jobLauncherTaskExecutor) throws Exception {
+        return new AsyncJobLauncher(jobRepository, jobLauncherTaskExecutor);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.batch.shared.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TaskDecorator that records how long tasks wait before an executor thread picks them up,
+ * how long they run, and how many are queued or running at any moment.
+ * <p>
+ * Works the same for pooled and virtual-thread executors because the counts are tracked
+ * on submit/start/finish rather than read from a particular queue implementation.
+ */
+public class MeteredTaskDecorator implements TaskDecorator {
+
+    private static final String EXECUTOR_TAG = "executor";
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Timer executionTimer;
+
+    public MeteredTaskDecorator(String executorName, MeterRegistry meterRegistry) {
+        this.waitTimer = Timer.builder("batch.executor.queue.wait")
+                .description("Time a task waited before starting")
+                .tag(EXECUTOR_TAG, executorName)
+                .register(meterRegistry);
+        this.executionTimer = Timer.builder("batch.executor.task.duration")
+                .description("Time a task spent running")
+                .tag(EXECUTOR_TAG, executorName)
+                .register(meterRegistry);
+        Gauge.builder("batch.executor.queue.depth", queued, AtomicInteger::get)
+                .description("Tasks submitted but not yet started")
+                .tag(EXECUTOR_TAG, executorName)
+                .register(meterRegistry);
+        Gauge.builder("batch.executor.active", active, AtomicInteger::get)
+                .description("Tasks currently running")
+                .tag(EXECUTOR_TAG, executorName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        long submittedAt = System.nanoTime();
+        queued.incrementAndGet();
+        return () -> {
+            long startedAt = System.nanoTime();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                runnable.run();
+            } finally {
+                active.decrementAndGet();
+                executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
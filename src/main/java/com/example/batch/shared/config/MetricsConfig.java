@@ -1,9 +1,18 @@
 package com.example.batch.shared.config;
 
+import com.example.batch.shared.monitoring.JobExecutionReadModel;
+import com.example.batch.shared.monitoring.LiveProgressPublisher;
+import com.example.batch.shared.monitoring.LiveProgressTracker;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.sql.DataSource;
+import java.time.Duration;
+
 /**
  * Configuration for custom Spring Batch metrics with Micrometer and Prometheus
  */
@@ -19,4 +28,36 @@ public class MetricsConfig {
     public BatchStepMetricsListener batchStepMetricsListener(MeterRegistry meterRegistry) {
         return new BatchStepMetricsListener(meterRegistry);
     }
+
+    @Bean
+    public ChunkProgressLoggingListener chunkProgressLoggingListener(MeterRegistry meterRegistry,
+            @Value("${batch.logging.chunk-summary-interval:1}") int chunkSummaryInterval) {
+        return new ChunkProgressLoggingListener(meterRegistry, chunkSummaryInterval);
+    }
+
+    // Live progress ของ step ที่กำลังรัน (ring buffer ต่อ step execution) ส่งออกทาง SSE ที่ /api/batch/progress/stream
+    @Bean
+    public LiveProgressTracker liveProgressTracker(
+            @Value("${batch.monitoring.progress.window-size:60}") int windowSize) {
+        return new LiveProgressTracker(windowSize);
+    }
+
+    @Bean
+    public LiveProgressPublisher liveProgressPublisher(LiveProgressTracker liveProgressTracker,
+            @Value("${batch.monitoring.progress.push-interval-ms:1000}") long pushIntervalMillis,
+            @Value("${batch.monitoring.progress.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        return new LiveProgressPublisher(liveProgressTracker, pushIntervalMillis, emitterTimeoutMillis);
+    }
+
+    // Read model ของ /api/batch/jobs และ /api/batch/executions: feed จาก job/step listeners
+    // cache ผล query ไว้ cache-ttl-ms แล้วเทียบกับ JobExplorer (execution จาก container อื่น)
+    @Bean
+    public JobExecutionReadModel jobExecutionReadModel(JobExplorer jobExplorer,
+            @Qualifier("batchDataSource") DataSource batchDataSource,
+            @Value("${batch.monitoring.read-model.max-executions:10000}") int maxExecutions,
+            @Value("${batch.monitoring.read-model.cold-start-instances:100}") int coldStartInstances,
+            @Value("${batch.monitoring.read-model.cache-ttl-ms:1000}") long cacheTtlMillis) {
+        return new JobExecutionReadModel(jobExplorer, batchDataSource, maxExecutions, coldStartInstances,
+                Duration.ofMillis(cacheTtlMillis));
+    }
 }
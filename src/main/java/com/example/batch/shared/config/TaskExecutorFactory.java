@@ -0,0 +1,86 @@
+package com.example.batch.shared.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Builds the TaskExecutors used for job launching, partitions and async processing.
+ * <p>
+ * With virtual threads enabled (JDK 21+) each task gets its own virtual thread and
+ * {@code concurrency} only caps how many run at once. Otherwise a fixed platform
+ * thread pool is used; when its queue is full the submitting thread runs the task
+ * itself, which throttles the producer instead of rejecting work.
+ * <p>
+ * With {@code rejectWhenFull} a full executor throws {@code TaskRejectedException}
+ * instead of throttling the caller: for submitters such as HTTP request threads that
+ * must not block or run the task themselves.
+ * <p>
+ * Returned executors are meant to be exposed as beans so the container initialises
+ * and shuts them down.
+ */
+public final class TaskExecutorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskExecutorFactory.class);
+
+    /** Concurrency value meaning "no limit" for virtual-thread executors */
+    public static final int UNBOUNDED = -1;
+
+    private TaskExecutorFactory() {
+    }
+
+    public static TaskExecutor create(String threadNamePrefix, int concurrency, int queueCapacity,
+            boolean virtualThreads, TaskDecorator taskDecorator) {
+        return create(threadNamePrefix, concurrency, queueCapacity, virtualThreads, taskDecorator, false);
+    }
+
+    public static TaskExecutor create(String threadNamePrefix, int concurrency, int queueCapacity,
+            boolean virtualThreads, TaskDecorator taskDecorator, boolean rejectWhenFull) {
+        if (virtualThreads) {
+            try {
+                if (rejectWhenFull && concurrency > 0) {
+                    // SimpleAsyncTaskExecutor blocks the caller at its concurrency limit, so
+                    // queue and reject in a pool whose threads are virtual instead
+                    ThreadFactory threadFactory = new VirtualThreadTaskExecutor(threadNamePrefix)
+                            .getVirtualThreadFactory();
+                    ThreadPoolTaskExecutor executor = threadPool(threadNamePrefix, concurrency, queueCapacity,
+                            taskDecorator, true);
+                    executor.setThreadFactory(threadFactory);
+                    return executor;
+                }
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+                executor.setVirtualThreads(true);
+                executor.setConcurrencyLimit(concurrency > 0 ? concurrency : UNBOUNDED);
+                executor.setTaskDecorator(taskDecorator);
+                return executor;
+            } catch (UnsupportedOperationException e) {
+                logger.warn("Virtual threads are not available on this JVM, using a thread pool for '{}'",
+                        threadNamePrefix);
+            }
+        }
+
+        int poolSize = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        return threadPool(threadNamePrefix, poolSize, queueCapacity, taskDecorator, rejectWhenFull);
+    }
+
+    private static ThreadPoolTaskExecutor threadPool(String threadNamePrefix, int poolSize, int queueCapacity,
+            TaskDecorator taskDecorator, boolean rejectWhenFull) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectWhenFull
+                ? new ThreadPoolExecutor.AbortPolicy() : new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(taskDecorator);
+        return executor;
+    }
+}
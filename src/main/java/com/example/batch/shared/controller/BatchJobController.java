@@ -1,53 +1,94 @@
 package com.example.batch.shared.controller;
 
+import com.example.batch.exportjson.writer.ExportCompression;
+import com.example.batch.exportjson.writer.ExportFormat;
+import com.example.batch.shared.chunk.ChunkCompletionPolicyFactory;
+import com.example.batch.shared.config.AsyncJobLauncher;
+import com.example.batch.vatcalculation.config.VatCalculationJobConfig;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
 
 /**
  * REST Controller สำหรับจัดการการเรียกใช้ Batch Jobs
+ * <p>
+ * Jobs ถูก launch แบบ asynchronous: endpoint คืน execution id ทันที
+ * แล้วติดตามสถานะต่อได้ที่ /api/batch/executions/{executionId}
+ * ถ้า queue ของ launcher เต็มจะตอบ 503 ให้ client ลองใหม่ภายหลัง
  */
 @RestController
 @RequestMapping("/api/batch")
 public class BatchJobController {
 
-    private final JobLauncher jobLauncher;
+    private static final String EXECUTION_STATUS_PATH = "/api/batch/executions/";
+
+    private final AsyncJobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
     private final Job vatCalculationJob;
     private final Job exportVatCalculationsJob;
+    private final Job metadataRetentionJob;
 
-    public BatchJobController(JobLauncher jobLauncher,
+    public BatchJobController(AsyncJobLauncher jobLauncher, JobExplorer jobExplorer,
             @Qualifier("vatCalculationJob") Job vatCalculationJob,
-            @Qualifier("exportVatCalculationsJob") Job exportVatCalculationsJob) {
+            @Qualifier("exportVatCalculationsJob") Job exportVatCalculationsJob,
+            @Qualifier("metadataRetentionJob") Job metadataRetentionJob) {
         this.jobLauncher = jobLauncher;
+        this.jobExplorer = jobExplorer;
         this.vatCalculationJob = vatCalculationJob;
         this.exportVatCalculationsJob = exportVatCalculationsJob;
+        this.metadataRetentionJob = metadataRetentionJob;
     }
 
     /**
      * เรียกใช้ VAT Calculation Job (อ่าน CSV -> คำนวณ VAT -> บันทึก DB)
+     * <p>
+     * chunkSize: commit interval ของ run นี้, adaptiveChunk: เปิด/ปิดการปรับ chunk size อัตโนมัติ
+     * (ไม่ระบุจะใช้ค่าจาก properties)
+     * inputPath: directory หรือ glob (เช่น file:/app/data/input/*.csv) ประมวลผลทุกไฟล์ขนานกันไฟล์ละ partition
      */
     @PostMapping("/run/vat-calculation")
-    public ResponseEntity<Map<String, Object>> runVatCalculationJob() {
+    public ResponseEntity<Map<String, Object>> runVatCalculationJob(
+            @RequestParam(required = false) Integer chunkSize,
+            @RequestParam(required = false) Boolean adaptiveChunk,
+            @RequestParam(required = false) String inputPath) {
         try {
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("startTime", System.currentTimeMillis())
-                    .toJobParameters();
+            JobParametersBuilder builder = new JobParametersBuilder()
+                    .addLong("startTime", System.currentTimeMillis());
+            if (inputPath != null && !inputPath.isBlank()) {
+                builder.addString(VatCalculationJobConfig.INPUT_PATH_PARAMETER, inputPath);
+            }
+            addChunkParameters(builder, chunkSize, adaptiveChunk);
+            JobParameters jobParameters = builder.toJobParameters();
 
             var jobExecution = jobLauncher.run(vatCalculationJob, jobParameters);
 
-            return ResponseEntity.ok(Map.of(
+            return ResponseEntity.accepted().body(Map.of(
                     "message", "VAT Calculation Job started successfully",
                     "jobId", jobExecution.getId(),
                     "status", jobExecution.getStatus().toString(),
-                    "startTime", jobExecution.getStartTime()));
+                    "createTime", jobExecution.getCreateTime(),
+                    "statusUrl", EXECUTION_STATUS_PATH + jobExecution.getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Invalid chunk options",
+                    "message", e.getMessage()));
+        } catch (TaskRejectedException e) {
+            return launcherBusy(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of(
                     "error", "Failed to start VAT Calculation Job",
@@ -57,26 +98,141 @@ public class BatchJobController {
 
     /**
      * เรียกใช้ Export Job (อ่าน DB -> แปลงข้อมูล -> สร้าง JSON)
+     * <p>
+     * format: json | ndjson, compression: none | gzip | zstd (ไม่ระบุจะใช้ค่าจาก properties)
+     * full=true: export ทั้งตารางแทนเฉพาะแถวใหม่ตั้งแต่ run ที่สำเร็จล่าสุด
+     * chunkSize / adaptiveChunk / pageSize: commit interval และขนาดหน้าของ reader สำหรับ run นี้
      */
     @PostMapping("/run/export-json")
-    public ResponseEntity<Map<String, Object>> runExportJob() {
+    public ResponseEntity<Map<String, Object>> runExportJob(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String compression,
+            @RequestParam(defaultValue = "false") boolean full,
+            @RequestParam(required = false) Integer chunkSize,
+            @RequestParam(required = false) Boolean adaptiveChunk,
+            @RequestParam(required = false) Integer pageSize) {
         try {
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("startTime", System.currentTimeMillis())
-                    .toJobParameters();
+            JobParametersBuilder builder = new JobParametersBuilder()
+                    .addLong("startTime", System.currentTimeMillis());
+            if (format != null) {
+                builder.addString("format", ExportFormat.from(format).name().toLowerCase());
+            }
+            if (compression != null) {
+                builder.addString("compression", ExportCompression.from(compression).name().toLowerCase());
+            }
+            if (full) {
+                builder.addString("full", "true");
+            }
+            addChunkParameters(builder, chunkSize, adaptiveChunk);
+            if (pageSize != null) {
+                builder.addLong("pageSize", (long) ChunkCompletionPolicyFactory.positiveInt("pageSize", pageSize, 0));
+            }
+            JobParameters jobParameters = builder.toJobParameters();
 
             var jobExecution = jobLauncher.run(exportVatCalculationsJob, jobParameters);
 
-            return ResponseEntity.ok(Map.of(
+            return ResponseEntity.accepted().body(Map.of(
                     "message", "Export JSON Job started successfully",
                     "jobId", jobExecution.getId(),
                     "status", jobExecution.getStatus().toString(),
-                    "startTime", jobExecution.getStartTime(),
+                    "createTime", jobExecution.getCreateTime(),
+                    "statusUrl", EXECUTION_STATUS_PATH + jobExecution.getId(),
                     "outputLocation", "/app/data/exports/"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Invalid export options",
+                    "message", e.getMessage()));
+        } catch (TaskRejectedException e) {
+            return launcherBusy(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of(
                     "error", "Failed to start Export JSON Job",
                     "message", e.getMessage()));
         }
     }
+
+    /**
+     * เรียกใช้ Housekeeping Job (ลบ batch metadata ที่เก่ากว่า batch.housekeeping.retention)
+     */
+    @PostMapping("/run/metadata-retention")
+    public ResponseEntity<Map<String, Object>> runMetadataRetentionJob() {
+        try {
+            JobParameters jobParameters = new JobParametersBuilder()
+                    .addLong("startTime", System.currentTimeMillis())
+                    .toJobParameters();
+
+            var jobExecution = jobLauncher.run(metadataRetentionJob, jobParameters);
+
+            return ResponseEntity.accepted().body(Map.of(
+                    "message", "Metadata Retention Job started successfully",
+                    "jobId", jobExecution.getId(),
+                    "status", jobExecution.getStatus().toString(),
+                    "createTime", jobExecution.getCreateTime(),
+                    "statusUrl", EXECUTION_STATUS_PATH + jobExecution.getId()));
+        } catch (TaskRejectedException e) {
+            return launcherBusy(e);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "error", "Failed to start Metadata Retention Job",
+                    "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Restart execution ที่ FAILED/STOPPED ด้วย job parameters เดิม (job instance เดิม)
+     * step และ partition ที่ COMPLETED แล้วจะถูกข้าม เช่นไฟล์ที่เสร็จแล้วใน multi-file mode
+     */
+    @PostMapping("/executions/{executionId}/restart")
+    public ResponseEntity<Map<String, Object>> restartExecution(@PathVariable long executionId) {
+        JobExecution previous = jobExplorer.getJobExecution(executionId);
+        if (previous == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String jobName = previous.getJobInstance().getJobName();
+        Job job = Map.of(
+                vatCalculationJob.getName(), vatCalculationJob,
+                exportVatCalculationsJob.getName(), exportVatCalculationsJob,
+                metadataRetentionJob.getName(), metadataRetentionJob).get(jobName);
+        if (job == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Unknown job",
+                    "message", "No restartable job named " + jobName));
+        }
+        try {
+            var jobExecution = jobLauncher.run(job, previous.getJobParameters());
+
+            return ResponseEntity.accepted().body(Map.of(
+                    "message", jobName + " restarted successfully",
+                    "jobId", jobExecution.getId(),
+                    "restartedFrom", executionId,
+                    "status", jobExecution.getStatus().toString(),
+                    "statusUrl", EXECUTION_STATUS_PATH + jobExecution.getId()));
+        } catch (JobExecutionAlreadyRunningException | JobInstanceAlreadyCompleteException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", "Execution cannot be restarted",
+                    "message", e.getMessage()));
+        } catch (TaskRejectedException e) {
+            return launcherBusy(e);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "error", "Failed to restart " + jobName,
+                    "message", e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> launcherBusy(TaskRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "error", "Job launcher is busy, retry later",
+                "message", e.getMessage()));
+    }
+
+    private static void addChunkParameters(JobParametersBuilder builder, Integer chunkSize, Boolean adaptiveChunk) {
+        if (chunkSize != null) {
+            builder.addLong(ChunkCompletionPolicyFactory.CHUNK_SIZE_PARAMETER, (long) ChunkCompletionPolicyFactory
+                    .positiveInt(ChunkCompletionPolicyFactory.CHUNK_SIZE_PARAMETER, chunkSize, 0));
+        }
+        if (adaptiveChunk != null) {
+            builder.addString(ChunkCompletionPolicyFactory.ADAPTIVE_PARAMETER, adaptiveChunk.toString());
+        }
+    }
 }
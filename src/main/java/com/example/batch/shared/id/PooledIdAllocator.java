@@ -0,0 +1,81 @@
+package com.example.batch.shared.id;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Pooled (hi/lo) ID allocator backed by the {@code id_allocator} table
+ * <p>
+ * Reserves {@code allocationSize} IDs per database round trip in a separate
+ * transaction, then hands them out from memory. Because IDs are known before the
+ * INSERT, Hibernate can batch inserts (which IDENTITY columns prevent) and the
+ * JDBC writer can use the same ID space.
+ * <p>
+ * The first allocation for a table seeds the row from {@code MAX(id) + 1}, so
+ * existing AUTO_INCREMENT IDs stay valid and are never reused.
+ * <p>
+ * IDs are unique but not ordered by commit: each allocator (partition, thread or
+ * instance) writes from its own reserved range, so a lower ID can commit after a
+ * higher one. Never use {@code id > :lastSeenId} to find new rows; incremental
+ * export uses {@code (updated_at, id)} instead (see ExportWatermarkListener).
+ */
+public class PooledIdAllocator {
+
+    private static final String UPDATE_SQL =
+            "UPDATE id_allocator SET next_val = next_val + ? WHERE sequence_name = ?";
+    private static final String SELECT_SQL =
+            "SELECT next_val FROM id_allocator WHERE sequence_name = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO id_allocator (sequence_name, next_val) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNewTransaction;
+    private final String tableName;
+    private final int allocationSize;
+
+    // ช่วง ID ที่จองไว้แล้ว [nextId, limit)
+    private long nextId;
+    private long limit;
+
+    public PooledIdAllocator(DataSource dataSource, String tableName, int allocationSize) {
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("allocationSize must be >= 1: " + allocationSize);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.requiresNewTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tableName = tableName;
+        this.allocationSize = allocationSize;
+    }
+
+    public synchronized long nextId() {
+        if (nextId >= limit) {
+            nextId = reserveBlock();
+            limit = nextId + allocationSize;
+        }
+        return nextId++;
+    }
+
+    // commit แยกจาก chunk transaction: ถ้า chunk rollback ID ในช่วงนี้จะถูกข้ามไป แต่ไม่ซ้ำ
+    private long reserveBlock() {
+        try {
+            return requiresNewTransaction.execute(status -> {
+                if (jdbcTemplate.update(UPDATE_SQL, allocationSize, tableName) == 0) {
+                    Long start = jdbcTemplate.queryForObject(
+                            "SELECT COALESCE(MAX(id), 0) + 1 FROM " + tableName, Long.class);
+                    jdbcTemplate.update(INSERT_SQL, tableName, start + allocationSize);
+                    return start;
+                }
+                return jdbcTemplate.queryForObject(SELECT_SQL, Long.class, tableName) - allocationSize;
+            });
+        } catch (DuplicateKeyException concurrentSeed) {
+            // อีก instance seed แถวนี้ไปพร้อมกัน ลองจองใหม่ด้วย UPDATE
+            return reserveBlock();
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.example.batch.shared.monitoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.NoSuchJobException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Read model ของ job executions สำหรับ BatchMonitoringApi (แทนการ query metadata tables ทุก request)
+ * <p>
+ * ถูก feed จาก job/step listeners: ทุก event จะเก็บ JobExecution ล่าสุดไว้ในหน่วยความจำ
+ * (เรียงตาม execution id ใหม่สุดก่อน จำกัดไม่เกิน {@code maxExecutions}) แล้ว invalidate cache ของผล query
+ * ผลลัพธ์ที่ map แล้วถูก cache ไว้สั้น ๆ ({@code cacheTtl}) เพราะ step ที่กำลังรันเปลี่ยน count ตลอด
+ * <p>
+ * ตอน cold start จะโหลด executions ล่าสุดจาก JobExplorer และทุก {@code cacheTtl} จะเทียบ MAX(JOB_EXECUTION_ID)
+ * กับที่รู้จัก: execution ที่ process อื่นสร้าง (เช่น one-shot container ของ docker-compose.jobs.yml / k8s Job)
+ * จะถูกโหลดเพิ่ม และ execution จากภายนอกที่ยังรันอยู่จะถูกอ่านสถานะใหม่ (listener ไม่เห็น event ของมัน)
+ * <p>
+ * execution ที่ไม่อยู่ใน read model จะหาจาก JobExplorer แทน รวมถึง findExecutions ที่ช่วงเวลาเลยขอบ
+ * execution เก่าสุดที่เก็บไว้ (เมื่อ read model ไม่ได้เก็บครบทุก execution)
+ */
+public class JobExecutionReadModel implements JobExecutionListener, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobExecutionReadModel.class);
+
+    private static final int RECENT_EXECUTIONS = 10;
+
+    private static final String MAX_EXECUTION_ID_SQL = "SELECT MAX(JOB_EXECUTION_ID) FROM BATCH_JOB_EXECUTION";
+
+    private static final String NEWER_EXECUTION_IDS_SQL = "SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION "
+            + "WHERE JOB_EXECUTION_ID > :afterId ORDER BY JOB_EXECUTION_ID DESC LIMIT :limit";
+
+    private static final String HISTORY_FROM = " FROM BATCH_JOB_EXECUTION e "
+            + "JOIN BATCH_JOB_INSTANCE i ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID WHERE 1 = 1";
+
+    private final JobExplorer jobExplorer;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxExecutions;
+    private final int coldStartInstancesPerJob;
+
+    // execution id ใหม่สุดอยู่หน้าสุด
+    private final NavigableMap<Long, JobExecution> executions = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final Map<String, Long> latestExecutionIds = new ConcurrentHashMap<>();
+    // execution ที่ listener ใน process นี้ feed (JobExecution ตัวจริง ไม่ต้องอ่านจาก JobExplorer ซ้ำ)
+    private final Set<Long> listenerExecutionIds = ConcurrentHashMap.newKeySet();
+    private final Cache<List<Object>, Object> queryCache;
+    private final long reconcileIntervalNanos;
+    private volatile boolean loaded;
+    private volatile long nextReconcileNanos;
+    private volatile long knownLatestExecutionId;
+    // มี execution ที่ไม่ได้เก็บไว้ (ถูกตัดตาม maxExecutions หรือเกิน cold-start-instances)
+    private volatile boolean truncated;
+
+    public JobExecutionReadModel(JobExplorer jobExplorer, DataSource batchDataSource, int maxExecutions,
+            int coldStartInstancesPerJob, Duration cacheTtl) {
+        if (maxExecutions < 1) {
+            throw new IllegalArgumentException("maxExecutions must be at least 1, got " + maxExecutions);
+        }
+        this.jobExplorer = jobExplorer;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(batchDataSource);
+        this.reconcileIntervalNanos = cacheTtl.toNanos();
+        this.maxExecutions = maxExecutions;
+        this.coldStartInstancesPerJob = coldStartInstancesPerJob;
+        this.queryCache = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        record(jobExecution);
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        record(jobExecution);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        record(stepExecution.getJobExecution());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        record(stepExecution.getJobExecution());
+        return null;
+    }
+
+    /**
+     * สถานะล่าสุดของทุก job (รูปแบบเดียวกับ /api/batch/jobs เดิม)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> allJobsStatus() {
+        return (Map<String, Object>) cached(List.of("jobs"), () -> {
+            Map<String, Object> statuses = new LinkedHashMap<>();
+            latestExecutionIds.keySet().stream().sorted().forEach(jobName -> {
+                JobExecution latest = executions.get(latestExecutionIds.get(jobName));
+                statuses.put(jobName, latest != null ? latestJobStatus(latest)
+                        : Map.of("status", "NO_EXECUTIONS", "message", "No recent executions retained"));
+            });
+            return Map.of(
+                    "totalJobs", statuses.size(),
+                    "jobNames", List.copyOf(statuses.keySet()),
+                    "jobStatuses", statuses);
+        });
+    }
+
+    /**
+     * Executions ล่าสุดของ job หนึ่งตัว หรือ {@code null} ถ้าไม่เคยรัน
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> jobStatus(String jobName) {
+        return (Map<String, Object>) cached(List.of("job", jobName), () -> {
+            if (!latestExecutionIds.containsKey(jobName)) {
+                return null;
+            }
+            return Map.of(
+                    "jobName", jobName,
+                    "totalInstances", jobInstanceCount(jobName),
+                    "recentExecutions", executions.values().stream()
+                            .filter(execution -> jobName.equals(jobName(execution)))
+                            .limit(RECENT_EXECUTIONS)
+                            .map(JobExecutionReadModel::mapJobExecution)
+                            .toList());
+        });
+    }
+
+    /**
+     * รายละเอียด execution พร้อม steps หรือ {@code null} ถ้าไม่พบ (ไม่อยู่ใน read model จะถาม JobExplorer)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> executionDetails(long executionId) {
+        return (Map<String, Object>) cached(List.of("execution", executionId), () -> {
+            JobExecution execution = executions.get(executionId);
+            if (execution == null) {
+                execution = jobExplorer.getJobExecution(executionId);
+            }
+            if (execution == null) {
+                return null;
+            }
+            return Map.of(
+                    "execution", mapJobExecution(execution),
+                    "steps", stepExecutions(execution).stream()
+                            .map(JobExecutionReadModel::mapStepDetails)
+                            .toList());
+        });
+    }
+
+    /**
+     * ค้นหา executions แบบแบ่งหน้า (ใหม่สุดก่อน) กรองด้วย job name, status และช่วงเวลาเริ่ม (null = ไม่กรอง)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> findExecutions(String jobName, BatchStatus status, LocalDateTime startedFrom,
+            LocalDateTime startedTo, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Invalid page " + page + " / size " + size);
+        }
+        List<Object> key = Arrays.asList("find", jobName, status, startedFrom, startedTo, page, size);
+        return (Map<String, Object>) cached(key, () -> {
+            if (outsideRetainedWindow(startedFrom)) {
+                return findInJobRepository(jobName, status, startedFrom, startedTo, page, size);
+            }
+            List<Map<String, Object>> content = new ArrayList<>(size);
+            long totalElements = 0;
+            long offset = (long) page * size;
+            for (JobExecution execution : executions.values()) {
+                if (!matches(execution, jobName, status, startedFrom, startedTo)) {
+                    continue;
+                }
+                if (totalElements >= offset && content.size() < size) {
+                    content.add(mapJobExecution(execution));
+                }
+                totalElements++;
+            }
+            return page(content, page, size, totalElements);
+        });
+    }
+
+    int size() {
+        return executions.size();
+    }
+
+    private void record(JobExecution jobExecution) {
+        if (jobExecution.getId() == null) {
+            return;
+        }
+        // เพิ่มใน listenerExecutionIds ก่อน put: reconcile จะไม่เอา copy จาก JobExplorer มาทับ
+        listenerExecutionIds.add(jobExecution.getId());
+        executions.put(jobExecution.getId(), jobExecution);
+        latestExecutionIds.merge(jobName(jobExecution), jobExecution.getId(), Math::max);
+        trim();
+        queryCache.invalidateAll();
+    }
+
+    private void trim() {
+        while (executions.size() > maxExecutions) {
+            Map.Entry<Long, JobExecution> oldest = executions.pollLastEntry(); // execution id เก่าสุด
+            if (oldest != null) {
+                listenerExecutionIds.remove(oldest.getKey());
+                truncated = true;
+            }
+        }
+    }
+
+    private Object cached(List<Object> key, Supplier<Object> query) {
+        reconcile();
+        Object cached = queryCache.getIfPresent(key);
+        if (cached == null) {
+            cached = query.get();
+            if (cached != null) {
+                queryCache.put(key, cached);
+            }
+        }
+        return cached;
+    }
+
+    // Cold start: โหลด executions ล่าสุดของทุก job จาก JobExplorer
+    // หลังจากนั้นทุก cacheTtl: โหลด execution ที่ id ใหม่กว่าที่รู้จัก
+    // และอ่านสถานะใหม่ของ execution ภายนอกที่ยังรันอยู่
+    private void reconcile() {
+        if (loaded && System.nanoTime() - nextReconcileNanos < 0) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded && System.nanoTime() - nextReconcileNanos < 0) {
+                return;
+            }
+            long latestExecutionId = latestExecutionId();
+            int changed;
+            if (!loaded) {
+                changed = loadRecent();
+                logger.info("Loaded {} job executions from JobExplorer into the monitoring read model", changed);
+            } else {
+                long known = executions.isEmpty() ? knownLatestExecutionId
+                        : Math.max(knownLatestExecutionId, executions.firstKey());
+                changed = latestExecutionId > known ? loadNewerThan(known) : 0;
+            }
+            changed += refreshExternalRunning();
+            knownLatestExecutionId = latestExecutionId;
+            trim();
+            loaded = true;
+            nextReconcileNanos = System.nanoTime() + reconcileIntervalNanos;
+            if (changed > 0) {
+                queryCache.invalidateAll();
+            }
+        }
+    }
+
+    private int loadRecent() {
+        int loadedCount = 0;
+        for (String jobName : jobExplorer.getJobNames()) {
+            List<JobInstance> instances = jobExplorer.getJobInstances(jobName, 0, coldStartInstancesPerJob);
+            if (instances.size() >= coldStartInstancesPerJob) {
+                truncated = true;
+            }
+            for (JobInstance instance : instances) {
+                for (JobExecution execution : jobExplorer.getJobExecutions(instance)) {
+                    loadedCount += putExternal(execution);
+                }
+            }
+        }
+        return loadedCount;
+    }
+
+    private int loadNewerThan(long knownExecutionId) {
+        List<Long> ids = jdbcTemplate.queryForList(NEWER_EXECUTION_IDS_SQL, new MapSqlParameterSource()
+                .addValue("afterId", knownExecutionId)
+                .addValue("limit", maxExecutions), Long.class);
+        int loadedCount = 0;
+        for (Long id : ids) {
+            JobExecution execution = jobExplorer.getJobExecution(id);
+            if (execution != null) {
+                loadedCount += putExternal(execution);
+            }
+        }
+        if (loadedCount > 0) {
+            logger.debug("Loaded {} job executions started by other processes", loadedCount);
+        }
+        return loadedCount;
+    }
+
+    // execution ที่ listener ไม่เห็น event (รันใน process อื่น) สถานะใน read model จะค้างถ้าไม่อ่านใหม่
+    private int refreshExternalRunning() {
+        int refreshed = 0;
+        for (JobExecution execution : List.copyOf(executions.values())) {
+            if (!execution.isRunning() || listenerExecutionIds.contains(execution.getId())) {
+                continue;
+            }
+            JobExecution current = jobExplorer.getJobExecution(execution.getId());
+            if (current == null) {
+                executions.remove(execution.getId());
+                refreshed++;
+            } else if (current.getStatus() != execution.getStatus()
+                    || stepExecutions(current).size() != stepExecutions(execution).size()) {
+                refreshed += putExternal(current);
+            }
+        }
+        return refreshed;
+    }
+
+    private int putExternal(JobExecution execution) {
+        // compute: ถ้า listener feed execution นี้แล้ว (แม้ระหว่างนี้) ให้คงตัวจาก listener ไว้
+        JobExecution retained = executions.compute(execution.getId(),
+                (id, current) -> listenerExecutionIds.contains(id) ? current : execution);
+        if (retained != execution) {
+            return 0;
+        }
+        latestExecutionIds.merge(jobName(execution), execution.getId(), Math::max);
+        return 1;
+    }
+
+    private long latestExecutionId() {
+        Long latest = jdbcTemplate.getJdbcTemplate().queryForObject(MAX_EXECUTION_ID_SQL, Long.class);
+        return latest != null ? latest : 0L;
+    }
+
+    // ช่วงที่เริ่มก่อน execution เก่าสุดที่เก็บไว้ (หรือไม่กำหนด from) ตอบจาก read model ไม่ครบเมื่อ truncated
+    private boolean outsideRetainedWindow(LocalDateTime startedFrom) {
+        if (!truncated) {
+            return false;
+        }
+        Map.Entry<Long, JobExecution> oldest = executions.lastEntry();
+        LocalDateTime oldestStart = oldest != null ? oldest.getValue().getStartTime() : null;
+        return startedFrom == null || oldestStart == null || startedFrom.isBefore(oldestStart);
+    }
+
+    private Map<String, Object> findInJobRepository(String jobName, BatchStatus status, LocalDateTime startedFrom,
+            LocalDateTime startedTo, int page, int size) {
+        StringBuilder where = new StringBuilder(HISTORY_FROM);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("limit", size)
+                .addValue("offset", (long) page * size);
+        if (jobName != null) {
+            where.append(" AND i.JOB_NAME = :jobName");
+            parameters.addValue("jobName", jobName);
+        }
+        if (status != null) {
+            where.append(" AND e.STATUS = :status");
+            parameters.addValue("status", status.name());
+        }
+        if (startedFrom != null) {
+            where.append(" AND e.START_TIME >= :startedFrom");
+            parameters.addValue("startedFrom", startedFrom);
+        }
+        if (startedTo != null) {
+            where.append(" AND e.START_TIME <= :startedTo");
+            parameters.addValue("startedTo", startedTo);
+        }
+        Long totalElements = jdbcTemplate.queryForObject("SELECT COUNT(*)" + where, parameters, Long.class);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT e.JOB_EXECUTION_ID" + where
+                + " ORDER BY e.JOB_EXECUTION_ID DESC LIMIT :limit OFFSET :offset", parameters, Long.class);
+        List<Map<String, Object>> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            JobExecution execution = executions.get(id);
+            if (execution == null) {
+                execution = jobExplorer.getJobExecution(id);
+            }
+            if (execution != null) {
+                content.add(mapJobExecution(execution));
+            }
+        }
+        return page(content, page, size, totalElements != null ? totalElements : 0L);
+    }
+
+    private static Map<String, Object> page(List<Map<String, Object>> content, int page, int size,
+            long totalElements) {
+        return Map.of(
+                "content", content,
+                "page", page,
+                "size", size,
+                "totalElements", totalElements,
+                "totalPages", (totalElements + size - 1) / size);
+    }
+
+    private long jobInstanceCount(String jobName) {
+        try {
+            return jobExplorer.getJobInstanceCount(jobName);
+        } catch (NoSuchJobException e) {
+            return 0;
+        }
+    }
+
+    private static boolean matches(JobExecution execution, String jobName, BatchStatus status,
+            LocalDateTime startedFrom, LocalDateTime startedTo) {
+        if (jobName != null && !jobName.equals(jobName(execution))) {
+            return false;
+        }
+        if (status != null && status != execution.getStatus()) {
+            return false;
+        }
+        LocalDateTime startTime = execution.getStartTime();
+        if (startedFrom != null && (startTime == null || startTime.isBefore(startedFrom))) {
+            return false;
+        }
+        return startedTo == null || (startTime != null && !startTime.isAfter(startedTo));
+    }
+
+    private static String jobName(JobExecution execution) {
+        return execution.getJobInstance().getJobName();
+    }
+
+    // JobExecution ของ job ที่กำลังรันถูกเพิ่ม step (partition) จาก thread อื่นระหว่าง copy ได้
+    private static List<StepExecution> stepExecutions(JobExecution execution) {
+        while (true) {
+            try {
+                return new ArrayList<>(execution.getStepExecutions());
+            } catch (ConcurrentModificationException e) {
+                // copy ใหม่
+            }
+        }
+    }
+
+    private static Map<String, Object> latestJobStatus(JobExecution execution) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", execution.getStatus().toString());
+        status.put("exitCode", execution.getExitStatus().getExitCode());
+        status.put("startTime", execution.getStartTime());
+        status.put("endTime", execution.getEndTime());
+        status.put("jobParameters", execution.getJobParameters().getParameters());
+        status.put("stepSummary", stepExecutions(execution).stream()
+                .map(step -> Map.of(
+                        "stepName", step.getStepName(),
+                        "status", step.getStatus().toString(),
+                        "readCount", step.getReadCount(),
+                        "writeCount", step.getWriteCount(),
+                        "skipCount", step.getSkipCount()))
+                .toList());
+        return status;
+    }
+
+    static Map<String, Object> mapJobExecution(JobExecution execution) {
+        LocalDateTime startTime = execution.getStartTime();
+        LocalDateTime endTime = execution.getEndTime();
+
+        Duration duration = null;
+        if (startTime != null && endTime != null) {
+            duration = Duration.between(startTime, endTime);
+        }
+
+        // LinkedHashMap เพราะ endTime / durationMs เป็น null ได้ระหว่างที่ job ยังรันอยู่
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("executionId", execution.getId());
+        view.put("jobName", jobName(execution));
+        view.put("status", execution.getStatus().toString());
+        view.put("exitCode", execution.getExitStatus().getExitCode());
+        view.put("startTime", startTime);
+        view.put("endTime", endTime);
+        view.put("durationMs", duration != null ? duration.toMillis() : null);
+        view.put("stepCount", stepExecutions(execution).size());
+        return view;
+    }
+
+    private static Map<String, Object> mapStepDetails(StepExecution step) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("stepName", step.getStepName());
+        view.put("status", step.getStatus().toString());
+        view.put("readCount", step.getReadCount());
+        view.put("writeCount", step.getWriteCount());
+        view.put("skipCount", step.getSkipCount());
+        view.put("commitCount", step.getCommitCount());
+        view.put("rollbackCount", step.getRollbackCount());
+        view.put("startTime", step.getStartTime());
+        view.put("endTime", step.getEndTime());
+        return view;
+    }
+}
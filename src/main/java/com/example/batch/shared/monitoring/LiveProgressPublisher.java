@@ -0,0 +1,101 @@
+package com.example.batch.shared.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ส่ง snapshot จาก {@link LiveProgressTracker} ไปยัง client ที่ subscribe ผ่าน Server-Sent Events
+ * <p>
+ * event {@code progress} = step ที่กำลังรันทั้งหมด (ส่งทุก push interval เมื่อมี subscriber)
+ * event {@code step-finished} = snapshot สุดท้ายของ step ที่เพิ่งจบ
+ */
+public class LiveProgressPublisher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveProgressPublisher.class);
+
+    static final String PROGRESS_EVENT = "progress";
+    static final String STEP_FINISHED_EVENT = "step-finished";
+
+    private final LiveProgressTracker tracker;
+    private final long emitterTimeoutMillis;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    public LiveProgressPublisher(LiveProgressTracker tracker, long pushIntervalMillis, long emitterTimeoutMillis) {
+        if (pushIntervalMillis < 1) {
+            throw new IllegalArgumentException("pushIntervalMillis must be at least 1, got " + pushIntervalMillis);
+        }
+        this.tracker = tracker;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-progress-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::publish, pushIntervalMillis, pushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+
+        // ส่งสถานะปัจจุบันทันที ไม่ต้องรอรอบถัดไป
+        send(emitter, PROGRESS_EVENT, tracker.snapshotRunning());
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return emitters.size();
+    }
+
+    // exception ที่หลุดออกจาก scheduleAtFixedRate จะยกเลิกรอบถัดไปทั้งหมด จึง log แล้วรอรอบหน้าแทน
+    void publish() {
+        try {
+            // step ที่จบแล้วต้อง drain เสมอ แม้ไม่มี subscriber (ไม่ให้ queue ส่ง event เก่าทีหลัง)
+            List<StepProgressSnapshot> finished = tracker.drainFinished();
+            if (emitters.isEmpty()) {
+                return;
+            }
+            List<StepProgressSnapshot> running = tracker.snapshotRunning();
+            for (SseEmitter emitter : emitters) {
+                for (StepProgressSnapshot snapshot : finished) {
+                    send(emitter, STEP_FINISHED_EVENT, snapshot);
+                }
+                send(emitter, PROGRESS_EVENT, running);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish live progress, retrying next interval", e);
+        }
+    }
+
+    private void send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // client ปิด connection ไปแล้ว
+            logger.debug("Dropping live progress subscriber: {}", e.getMessage());
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+}
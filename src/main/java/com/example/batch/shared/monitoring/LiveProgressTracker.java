@@ -0,0 +1,212 @@
+package com.example.batch.shared.monitoring;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * เก็บ live progress ของ step ที่กำลังรันไว้ในหน่วยความจำ (ไม่ query ตาราง BATCH_STEP_EXECUTION)
+ * <p>
+ * ทุก chunk ที่ commit จะถูกบันทึกลง ring buffer ขนาด {@code windowSize} ของ step execution นั้น
+ * แล้วคำนวณ items/sec, chunk latency percentiles และ ETA จากหน้าต่างล่าสุด
+ * <p>
+ * ETA ใช้ {@link #EXPECTED_ITEMS_KEY} ใน step ExecutionContext ที่ reader ใส่ไว้ (ถ้าไม่มีจะเป็น null)
+ */
+public class LiveProgressTracker implements StepExecutionListener, ChunkListener {
+
+    public static final String EXPECTED_ITEMS_KEY = "progress.expectedItems";
+
+    private static final int MAX_FINISHED = 100;
+
+    private final int windowSize;
+    private final LongSupplier nanoClock;
+    private final Map<Long, StepProgress> running = new ConcurrentHashMap<>();
+
+    // snapshot สุดท้ายของ step ที่จบแล้ว รอ publisher ส่งออกครั้งเดียว
+    private final Queue<StepProgressSnapshot> finished = new ConcurrentLinkedQueue<>();
+
+    public LiveProgressTracker(int windowSize) {
+        this(windowSize, System::nanoTime);
+    }
+
+    LiveProgressTracker(int windowSize, LongSupplier nanoClock) {
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("windowSize must be at least 2, got " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        running.put(stepExecution.getId(), new StepProgress(stepExecution, windowSize, nanoClock.getAsLong()));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        StepProgress progress = running.remove(stepExecution.getId());
+        if (progress != null) {
+            finished.add(progress.snapshot(nanoClock.getAsLong()));
+            while (finished.size() > MAX_FINISHED) {
+                finished.poll();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepProgress progress = running.get(context.getStepContext().getStepExecution().getId());
+        if (progress != null) {
+            progress.chunkStarted(nanoClock.getAsLong());
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepProgress progress = running.get(context.getStepContext().getStepExecution().getId());
+        if (progress != null) {
+            progress.chunkCommitted(nanoClock.getAsLong());
+        }
+    }
+
+    /**
+     * Snapshot ของทุก step ที่กำลังรัน เรียงตาม step execution id
+     */
+    public List<StepProgressSnapshot> snapshotRunning() {
+        long now = nanoClock.getAsLong();
+        List<StepProgressSnapshot> snapshots = new ArrayList<>(running.size());
+        for (StepProgress progress : running.values()) {
+            snapshots.add(progress.snapshot(now));
+        }
+        snapshots.sort(Comparator.comparingLong(StepProgressSnapshot::getStepExecutionId));
+        return snapshots;
+    }
+
+    /**
+     * ดึง snapshot สุดท้ายของ step ที่จบไปแล้วตั้งแต่การเรียกครั้งก่อน
+     */
+    public List<StepProgressSnapshot> drainFinished() {
+        List<StepProgressSnapshot> drained = new ArrayList<>();
+        StepProgressSnapshot snapshot;
+        while ((snapshot = finished.poll()) != null) {
+            drained.add(snapshot);
+        }
+        return drained;
+    }
+
+    /**
+     * Ring buffer ของ chunk ล่าสุดของ step execution หนึ่งตัว
+     * เขียนจาก thread ของ step และอ่านจาก thread ของ publisher จึง synchronized ทุก method
+     */
+    private static final class StepProgress {
+        private final StepExecution stepExecution;
+        private final long startNanos;
+
+        private final long[] timestamps;
+        private final long[] readCounts;
+        private final long[] writeCounts;
+        private final long[] latencies;
+        private int next;
+        private int size;
+
+        private long chunkStart;
+
+        private StepProgress(StepExecution stepExecution, int windowSize, long startNanos) {
+            this.stepExecution = stepExecution;
+            this.startNanos = startNanos;
+            this.timestamps = new long[windowSize];
+            this.readCounts = new long[windowSize];
+            this.writeCounts = new long[windowSize];
+            this.latencies = new long[windowSize];
+        }
+
+        private synchronized void chunkStarted(long now) {
+            chunkStart = now;
+        }
+
+        private synchronized void chunkCommitted(long now) {
+            timestamps[next] = now;
+            readCounts[next] = stepExecution.getReadCount();
+            writeCounts[next] = stepExecution.getWriteCount();
+            latencies[next] = now - chunkStart;
+            next = (next + 1) % timestamps.length;
+            size = Math.min(size + 1, timestamps.length);
+        }
+
+        private synchronized StepProgressSnapshot snapshot(long now) {
+            long readCount = stepExecution.getReadCount();
+            long writeCount = stepExecution.getWriteCount();
+
+            // อัตราจากหน้าต่างล่าสุด (chunk เก่าสุดใน buffer ถึงปัจจุบัน) หรือตั้งแต่เริ่ม step ถ้ายังไม่เต็ม
+            long fromNanos = startNanos;
+            long fromRead = 0;
+            long fromWrite = 0;
+            if (size == timestamps.length) {
+                fromNanos = timestamps[next];
+                fromRead = readCounts[next];
+                fromWrite = writeCounts[next];
+            }
+            double seconds = (now - fromNanos) / 1_000_000_000.0;
+            double readPerSecond = seconds > 0 ? (readCount - fromRead) / seconds : 0;
+            double writePerSecond = seconds > 0 ? (writeCount - fromWrite) / seconds : 0;
+
+            Long expectedItems = stepExecution.getExecutionContext().containsKey(EXPECTED_ITEMS_KEY)
+                    ? stepExecution.getExecutionContext().getLong(EXPECTED_ITEMS_KEY)
+                    : null;
+            Double percentComplete = null;
+            Long etaSeconds = null;
+            if (expectedItems != null && expectedItems > 0) {
+                percentComplete = Math.min(100.0, 100.0 * readCount / expectedItems);
+                long remaining = Math.max(0, expectedItems - readCount);
+                if (stepExecution.getStatus().isRunning() && readPerSecond > 0) {
+                    etaSeconds = (long) Math.ceil(remaining / readPerSecond);
+                } else if (remaining == 0) {
+                    etaSeconds = 0L;
+                }
+            }
+
+            long[] window = Arrays.copyOf(latencies, size);
+            Arrays.sort(window);
+
+            return new StepProgressSnapshot(
+                    stepExecution.getJobExecutionId(),
+                    stepExecution.getId(),
+                    stepExecution.getJobExecution().getJobInstance().getJobName(),
+                    stepExecution.getStepName(),
+                    stepExecution.getStatus().toString(),
+                    readCount,
+                    writeCount,
+                    expectedItems,
+                    percentComplete,
+                    readPerSecond,
+                    writePerSecond,
+                    percentileMillis(window, 0.50),
+                    percentileMillis(window, 0.95),
+                    percentileMillis(window, 0.99),
+                    etaSeconds,
+                    (now - startNanos) / 1_000_000);
+        }
+
+        // nearest-rank percentile ของ latency ที่เรียงแล้ว
+        private static Double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return null;
+            }
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+        }
+    }
+}
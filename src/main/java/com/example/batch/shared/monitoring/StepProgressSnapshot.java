@@ -0,0 +1,112 @@
+package com.example.batch.shared.monitoring;
+
+/**
+ * Live progress ของ step execution หนึ่งตัว ณ เวลาที่ snapshot (ส่งออกเป็น JSON ผ่าน SSE)
+ * <p>
+ * ค่าที่ไม่รู้ (เช่น ETA ของ step ที่ไม่มี input size) เป็น {@code null}
+ */
+public final class StepProgressSnapshot {
+
+    private final long jobExecutionId;
+    private final long stepExecutionId;
+    private final String jobName;
+    private final String stepName;
+    private final String status;
+    private final long readCount;
+    private final long writeCount;
+    private final Long expectedItems;
+    private final Double percentComplete;
+    private final double readItemsPerSecond;
+    private final double writeItemsPerSecond;
+    private final Double chunkLatencyP50Ms;
+    private final Double chunkLatencyP95Ms;
+    private final Double chunkLatencyP99Ms;
+    private final Long etaSeconds;
+    private final long elapsedMs;
+
+    StepProgressSnapshot(long jobExecutionId, long stepExecutionId, String jobName, String stepName,
+            String status, long readCount, long writeCount, Long expectedItems, Double percentComplete,
+            double readItemsPerSecond, double writeItemsPerSecond, Double chunkLatencyP50Ms,
+            Double chunkLatencyP95Ms, Double chunkLatencyP99Ms, Long etaSeconds, long elapsedMs) {
+        this.jobExecutionId = jobExecutionId;
+        this.stepExecutionId = stepExecutionId;
+        this.jobName = jobName;
+        this.stepName = stepName;
+        this.status = status;
+        this.readCount = readCount;
+        this.writeCount = writeCount;
+        this.expectedItems = expectedItems;
+        this.percentComplete = percentComplete;
+        this.readItemsPerSecond = readItemsPerSecond;
+        this.writeItemsPerSecond = writeItemsPerSecond;
+        this.chunkLatencyP50Ms = chunkLatencyP50Ms;
+        this.chunkLatencyP95Ms = chunkLatencyP95Ms;
+        this.chunkLatencyP99Ms = chunkLatencyP99Ms;
+        this.etaSeconds = etaSeconds;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getJobExecutionId() {
+        return jobExecutionId;
+    }
+
+    public long getStepExecutionId() {
+        return stepExecutionId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    public Long getExpectedItems() {
+        return expectedItems;
+    }
+
+    public Double getPercentComplete() {
+        return percentComplete;
+    }
+
+    public double getReadItemsPerSecond() {
+        return readItemsPerSecond;
+    }
+
+    public double getWriteItemsPerSecond() {
+        return writeItemsPerSecond;
+    }
+
+    public Double getChunkLatencyP50Ms() {
+        return chunkLatencyP50Ms;
+    }
+
+    public Double getChunkLatencyP95Ms() {
+        return chunkLatencyP95Ms;
+    }
+
+    public Double getChunkLatencyP99Ms() {
+        return chunkLatencyP99Ms;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
@@ -1,9 +1,21 @@
 package com.example.batch.shared.repository;
 
 import com.example.batch.vatcalculation.model.PriceCalculation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface PriceCalculationRepository extends JpaRepository<PriceCalculation, Long> {
+
+    // ใช้กับ incremental export: อ่านเฉพาะแถวที่ (updatedAt, id) มากกว่า watermark และ updatedAt ไม่เกินเวลาตัด
+    @Query("SELECT p FROM PriceCalculation p WHERE (p.updatedAt > :afterUpdatedAt"
+            + " OR (p.updatedAt = :afterUpdatedAt AND p.id > :afterId)) AND p.updatedAt <= :until")
+    Page<PriceCalculation> findChangedAfter(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+            @Param("afterId") Long afterId, @Param("until") LocalDateTime until, Pageable pageable);
 }
@@ -0,0 +1,31 @@
+package com.example.batch.shared.writer;
+
+import com.example.batch.shared.id.PooledIdAllocator;
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+/**
+ * ItemWriter decorator ที่กำหนด ID จาก PooledIdAllocator ก่อนเขียน
+ * เพื่อให้ทั้ง JPA writer และ JDBC writer ใช้ ID ชุดเดียวกัน
+ */
+public class IdAssigningItemWriter implements ItemWriter<PriceCalculation> {
+
+    private final ItemWriter<PriceCalculation> delegate;
+    private final PooledIdAllocator idAllocator;
+
+    public IdAssigningItemWriter(ItemWriter<PriceCalculation> delegate, PooledIdAllocator idAllocator) {
+        this.delegate = delegate;
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public void write(Chunk<? extends PriceCalculation> chunk) throws Exception {
+        for (PriceCalculation item : chunk) {
+            if (item.getId() == null) {
+                item.setId(idAllocator.nextId());
+            }
+        }
+        delegate.write(chunk);
+    }
+}
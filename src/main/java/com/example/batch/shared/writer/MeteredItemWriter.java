@@ -0,0 +1,64 @@
+package com.example.batch.shared.writer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemWriter decorator ที่วัด throughput (rows/sec) ของ writer แต่ละ mode
+ * เพื่อใช้เปรียบเทียบ JPA path กับ JDBC batch path
+ */
+public class MeteredItemWriter<T> implements ItemWriter<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeteredItemWriter.class);
+
+    private static final String WRITER_MODE_TAG = "writer_mode";
+
+    private final ItemWriter<T> delegate;
+    private final String writerMode;
+    private final Timer writeTimer;
+    private final Counter rowCounter;
+    private final DistributionSummary rowsPerSecond;
+
+    public MeteredItemWriter(ItemWriter<T> delegate, String writerMode, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.writerMode = writerMode;
+        this.writeTimer = Timer.builder("batch.writer.write")
+                .description("Time spent writing one chunk")
+                .tag(WRITER_MODE_TAG, writerMode)
+                .register(meterRegistry);
+        this.rowCounter = Counter.builder("batch.writer.rows")
+                .description("Rows written")
+                .tag(WRITER_MODE_TAG, writerMode)
+                .register(meterRegistry);
+        this.rowsPerSecond = DistributionSummary.builder("batch.writer.rows_per_second")
+                .description("Write throughput per chunk")
+                .tag(WRITER_MODE_TAG, writerMode)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        long start = System.nanoTime();
+        delegate.write(chunk);
+        long elapsedNanos = System.nanoTime() - start;
+
+        int rows = chunk.size();
+        writeTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rowCounter.increment(rows);
+
+        if (elapsedNanos > 0 && rows > 0) {
+            double throughput = rows * 1_000_000_000d / elapsedNanos;
+            rowsPerSecond.record(throughput);
+            logger.debug("[{}] Wrote {} rows in {} ms ({} rows/sec)", writerMode, rows,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(throughput));
+        }
+    }
+}
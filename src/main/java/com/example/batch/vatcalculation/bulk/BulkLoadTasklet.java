@@ -0,0 +1,204 @@
+package com.example.batch.vatcalculation.bulk;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk load mode ขั้นที่ 2: โหลดไฟล์ TSV ทุกไฟล์ของ job execution นี้เข้า
+ * {@code price_calculations_staging} แล้ว merge เข้า {@code price_calculations}
+ * <p>
+ * MySQL ใช้ {@code LOAD DATA LOCAL INFILE} โดยส่งไฟล์เป็น stream ผ่าน connection ของ
+ * businessDataSource (ต้องเปิด {@code allowLoadLocalInfile=true} ใน JDBC URL)
+ * ส่วน H2 ใช้ {@code CSVREAD} เพื่อให้ทดสอบในเครื่องได้
+ * <p>
+ * merge ใช้ natural key {@code (source_file, source_line)} เหมือน writer mode upsert
+ * <p>
+ * แต่ละครั้งที่ execute ทำงานชิ้นเดียวใน transaction ของตัวเอง (คืน CONTINUABLE):
+ * โหลดหนึ่งไฟล์ หรือ merge แล้วลบ staging หนึ่งช่วง ({@code mergeSliceSize} แถวที่ id ต่ำสุด)
+ * transaction ของ price_calculations จึงสั้นเท่า chunk ปกติ ไม่ถือ lock / undo log ทั้งไฟล์
+ * และ {@code batch.export.incremental.safety-lag} ครอบคลุมได้ (updated_at ถูกตั้งตอน statement ไม่ใช่ตอน commit)
+ * <p>
+ * ถ้า fail ไฟล์ยังอยู่: restart จะล้าง staging แล้วโหลดและ merge ใหม่ทั้งหมด (merge เป็น upsert รันซ้ำได้)
+ */
+public class BulkLoadTasklet implements Tasklet, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoadTasklet.class);
+
+    private static final String FILE_PREFIX = "price-calculations-";
+    private static final String FILE_SUFFIX = ".tsv";
+
+    private static final String COLUMNS =
+            "id, original_price, vat_rate, vat_amount, total_price, created_at, source_file, source_line";
+
+    private static final String MYSQL_LOAD_SQL = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE price_calculations_staging "
+            + "CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' LINES TERMINATED BY '\\n' "
+            + "(" + COLUMNS + ") SET job_execution_id = ";
+
+    // argument ของ CSVREAD ต้องเป็นค่าคงที่ตอน prepare (bind parameter ไม่ได้)
+    private static final String H2_LOAD_SQL = "INSERT INTO price_calculations_staging (job_execution_id, " + COLUMNS + ") "
+            + "SELECT ?, * FROM CSVREAD(%s, %s, %s)";
+    private static final String H2_CSV_COLUMNS = String.join("\t",
+            "ID", "ORIGINAL_PRICE", "VAT_RATE", "VAT_AMOUNT", "TOTAL_PRICE", "CREATED_AT", "SOURCE_FILE", "SOURCE_LINE");
+    private static final String H2_CSV_OPTIONS = "charset=UTF-8 fieldSeparator=\t fieldDelimiter= nullString="
+            + PriceCalculationTsvLineAggregator.NULL_VALUE;
+
+    // id สูงสุดของ slice ถัดไป (slice ที่ merge แล้วถูกลบออกจาก staging จึงเริ่มจาก id ต่ำสุดที่เหลือเสมอ)
+    private static final String SLICE_END_SQL = "SELECT MAX(id) FROM (SELECT id FROM price_calculations_staging "
+            + "WHERE job_execution_id = ? ORDER BY id LIMIT ?) slice";
+
+    private static final String MERGE_SLICE_SQL = "INSERT INTO price_calculations (" + COLUMNS + ") "
+            + "SELECT " + COLUMNS + " FROM price_calculations_staging WHERE job_execution_id = ? AND id <= ? "
+            + "ON DUPLICATE KEY UPDATE original_price = VALUES(original_price), vat_rate = VALUES(vat_rate), "
+            + "vat_amount = VALUES(vat_amount), total_price = VALUES(total_price)";
+
+    private static final String DELETE_SLICE_SQL =
+            "DELETE FROM price_calculations_staging WHERE job_execution_id = ? AND id <= ?";
+
+    private static final String CLEAR_STAGING_SQL = "DELETE FROM price_calculations_staging WHERE job_execution_id = ?";
+
+    // state ระหว่างรอบ execute ของ step execution เดียวกัน (ChunkContext ใหม่เมื่อ restart)
+    private static final String FILES_ATTRIBUTE = "bulkLoad.files";
+    private static final String NEXT_FILE_ATTRIBUTE = "bulkLoad.nextFile";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final int mergeSliceSize;
+
+    public BulkLoadTasklet(DataSource dataSource, Path directory, int mergeSliceSize) {
+        if (mergeSliceSize < 1) {
+            throw new IllegalArgumentException("mergeSliceSize must be at least 1, got " + mergeSliceSize);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.directory = directory;
+        this.mergeSliceSize = mergeSliceSize;
+    }
+
+    // ไฟล์ของแต่ละ step execution (แต่ละ partition เขียนไฟล์ของตัวเอง)
+    public static Path stagingFile(Path directory, long jobExecutionId, long stepExecutionId) {
+        return directory.resolve(FILE_PREFIX + jobExecutionId + "-" + stepExecutionId + FILE_SUFFIX);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        long jobExecutionId = chunkContext.getStepContext().getStepExecution().getJobExecutionId();
+        if (!chunkContext.hasAttribute(FILES_ATTRIBUTE)) {
+            // แถวค้างจาก attempt ก่อนหน้าที่ fail
+            jdbcTemplate.update(CLEAR_STAGING_SQL, jobExecutionId);
+            chunkContext.setAttribute(FILES_ATTRIBUTE, stagingFiles(jobExecutionId));
+            chunkContext.setAttribute(NEXT_FILE_ATTRIBUTE, 0);
+            return RepeatStatus.CONTINUABLE;
+        }
+
+        List<Path> files = (List<Path>) chunkContext.getAttribute(FILES_ATTRIBUTE);
+        int nextFile = (Integer) chunkContext.getAttribute(NEXT_FILE_ATTRIBUTE);
+        if (nextFile < files.size()) {
+            Path file = files.get(nextFile);
+            long loaded = load(file, jobExecutionId);
+            contribution.incrementWriteCount(loaded);
+            chunkContext.setAttribute(NEXT_FILE_ATTRIBUTE, nextFile + 1);
+            logger.info("Bulk loaded {} rows from {} into price_calculations_staging", loaded, file);
+            return RepeatStatus.CONTINUABLE;
+        }
+
+        Long sliceEnd = jdbcTemplate.queryForObject(SLICE_END_SQL, Long.class, jobExecutionId, mergeSliceSize);
+        if (sliceEnd == null) {
+            logger.info("Merged {} staging files into price_calculations", files.size());
+            return RepeatStatus.FINISHED;
+        }
+        int merged = jdbcTemplate.update(MERGE_SLICE_SQL, jobExecutionId, sliceEnd);
+        jdbcTemplate.update(DELETE_SLICE_SQL, jobExecutionId, sliceEnd);
+        logger.debug("Merged staging rows up to id {} ({} affected rows)", sliceEnd, merged);
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        // ลบไฟล์เมื่อ merge commit แล้วเท่านั้น
+        if (ExitStatus.COMPLETED.getExitCode().equals(stepExecution.getExitStatus().getExitCode())) {
+            for (Path file : stagingFiles(stepExecution.getJobExecutionId())) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.warn("Could not delete staging file {}", file, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    private long load(Path file, long jobExecutionId) {
+        DatabaseType databaseType = databaseType();
+        return switch (databaseType) {
+            case MYSQL -> loadMySql(file, jobExecutionId);
+            case H2 -> jdbcTemplate.update(H2_LOAD_SQL.formatted(sqlLiteral(file.toString()),
+                    sqlLiteral(H2_CSV_COLUMNS), sqlLiteral(H2_CSV_OPTIONS)), jobExecutionId);
+            default -> throw new IllegalStateException("Bulk load is not supported on " + databaseType);
+        };
+    }
+
+    private long loadMySql(Path file, long jobExecutionId) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement();
+                    InputStream in = Files.newInputStream(file)) {
+                statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(in);
+                return statement.executeLargeUpdate(MYSQL_LOAD_SQL + jobExecutionId);
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to read staging file " + file, e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static String sqlLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private List<Path> stagingFiles(long jobExecutionId) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        String glob = FILE_PREFIX + jobExecutionId + "-*" + FILE_SUFFIX;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to list staging files in " + directory, e);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private DatabaseType databaseType() {
+        try {
+            return DatabaseType.fromMetaData(dataSource);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not detect database type for bulk load", e);
+        }
+    }
+}
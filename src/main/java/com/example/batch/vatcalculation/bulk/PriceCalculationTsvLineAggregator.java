@@ -0,0 +1,52 @@
+package com.example.batch.vatcalculation.bulk;
+
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import org.springframework.batch.item.file.transform.LineAggregator;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * แปลง PriceCalculation เป็นบรรทัด TSV ตามลำดับคอลัมน์ของ {@code price_calculations_staging}
+ * <p>
+ * ใช้รูปแบบของ MySQL {@code LOAD DATA}: NULL เขียนเป็น {@code \N} และ escape
+ * backslash / tab / newline ในข้อความด้วย backslash
+ */
+public class PriceCalculationTsvLineAggregator implements LineAggregator<PriceCalculation> {
+
+    static final String NULL_VALUE = "\\N";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    @Override
+    public String aggregate(PriceCalculation item) {
+        StringBuilder line = new StringBuilder(96);
+        line.append(item.getId()).append('\t')
+                .append(item.getOriginalPrice().toPlainString()).append('\t')
+                .append(item.getVatRate().toPlainString()).append('\t')
+                .append(item.getVatAmount().toPlainString()).append('\t')
+                .append(item.getTotalPrice().toPlainString()).append('\t');
+        TIMESTAMP_FORMAT.formatTo(item.getCreatedAt(), line);
+        line.append('\t');
+        appendText(line, item.getSourceFile());
+        line.append('\t');
+        line.append(item.getSourceLine() == null ? NULL_VALUE : item.getSourceLine().toString());
+        return line.toString();
+    }
+
+    private static void appendText(StringBuilder line, String value) {
+        if (value == null) {
+            line.append(NULL_VALUE);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\t' -> line.append("\\t");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                default -> line.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.batch.vatcalculation.bulk;
+
+import com.example.batch.shared.id.PooledIdAllocator;
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Bulk load mode: เขียน PriceCalculation ลงไฟล์ TSV แทนการ INSERT
+ * (BulkLoadTasklet จะโหลดไฟล์เข้า staging table ในภายหลัง)
+ * <p>
+ * ID มาจาก PooledIdAllocator เหมือน writer mode อื่น และตำแหน่งในไฟล์ถูกเก็บ
+ * ใน ExecutionContext ทุก commit ทำให้ restart เขียนต่อได้โดยไม่มีแถวซ้ำ
+ */
+public class StagingFileItemWriter implements ItemStreamWriter<PriceCalculation> {
+
+    private final FlatFileItemWriter<PriceCalculation> delegate;
+    private final PooledIdAllocator idAllocator;
+
+    public StagingFileItemWriter(Path file, PooledIdAllocator idAllocator) {
+        this.delegate = new FlatFileItemWriterBuilder<PriceCalculation>()
+                .name("priceCalculationStagingFileWriter")
+                .resource(new FileSystemResource(file))
+                .encoding(StandardCharsets.UTF_8.name())
+                .lineAggregator(new PriceCalculationTsvLineAggregator())
+                .build();
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public void write(Chunk<? extends PriceCalculation> chunk) throws Exception {
+        for (PriceCalculation item : chunk) {
+            if (item.getId() == null) {
+                item.setId(idAllocator.nextId());
+            }
+        }
+        delegate.write(chunk);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        delegate.close();
+    }
+}
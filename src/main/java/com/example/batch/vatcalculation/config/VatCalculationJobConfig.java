@@ -1,54 +1,322 @@
 package com.example.batch.vatcalculation.config;
 
+import com.example.batch.vatcalculation.bulk.BulkLoadTasklet;
+import com.example.batch.vatcalculation.bulk.StagingFileItemWriter;
 import com.example.batch.vatcalculation.model.PriceInput;
 import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.partition.ByteRangeResource;
+import com.example.batch.vatcalculation.partition.InputFileArchiver;
+import com.example.batch.vatcalculation.partition.InputFilePartitioner;
+import com.example.batch.vatcalculation.partition.LineAlignedByteRangePartitioner;
 import com.example.batch.vatcalculation.processor.VatCalculationProcessor;
+import com.example.batch.vatcalculation.rate.VatRateResolver;
+import com.example.batch.vatcalculation.reader.InputLineEstimator;
+import com.example.batch.vatcalculation.reader.MappedPriceFileReader;
+import com.example.batch.vatcalculation.writer.ColumnarVatCalculationWriter;
+import com.example.batch.vatcalculation.reader.PriceInputLineMapper;
+import com.example.batch.vatcalculation.reader.SourceFileKey;
+import com.example.batch.shared.chunk.ChunkCompletionPolicyFactory;
 import com.example.batch.shared.repository.PriceCalculationRepository;
 import com.example.batch.shared.config.BatchJobMetricsListener;
 import com.example.batch.shared.config.BatchStepMetricsListener;
+import com.example.batch.shared.config.ChunkProgressLoggingListener;
+import com.example.batch.shared.config.MeteredTaskDecorator;
+import com.example.batch.shared.config.TaskExecutorFactory;
+import com.example.batch.shared.id.PooledIdAllocator;
+import com.example.batch.shared.monitoring.JobExecutionReadModel;
+import com.example.batch.shared.monitoring.LiveProgressTracker;
+import com.example.batch.shared.writer.IdAssigningItemWriter;
+import com.example.batch.shared.writer.MeteredItemWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.JobFlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.data.RepositoryItemWriter;
-import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.item.file.LineMapper;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.repeat.CompletionPolicy;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Future;
+
 @Configuration
 public class VatCalculationJobConfig {
 
+    static final String WRITER_MODE_JPA = "jpa";
+    static final String WRITER_MODE_JDBC = "jdbc";
+    static final String WRITER_MODE_UPSERT = "upsert";
+
+    static final String PROCESSING_MODE_ITEM = "item";
+    static final String PROCESSING_MODE_COLUMNAR = "columnar";
+
+    static final String READER_MODE_FLAT_FILE = "flat-file";
+    static final String READER_MODE_MMAP = "mmap";
+
+    static final String LINE_MAPPER_BEAN_WRAPPER = "bean-wrapper";
+    static final String LINE_MAPPER_FAST = "fast";
+
+    // job parameter: directory หรือ glob ของไฟล์ input (ไม่ระบุ = batch.vat-calculation.input-file ไฟล์เดียว)
+    public static final String INPUT_PATH_PARAMETER = "inputPath";
+
+    private static final String INPUT_MODE_FILES = "FILES";
+    private static final String INPUT_MODE_SINGLE = "SINGLE";
+
+    // เลือก step แรกตอน runtime ตาม job parameter (flow ของ job สร้างครั้งเดียวตอน startup)
+    private static final JobExecutionDecider INPUT_MODE_DECIDER = (jobExecution, stepExecution) ->
+            new FlowExecutionStatus(jobExecution.getJobParameters().getParameter(INPUT_PATH_PARAMETER) != null
+                    ? INPUT_MODE_FILES : INPUT_MODE_SINGLE);
+
+    private static final ResourceLoader RESOURCE_LOADER = new DefaultResourceLoader();
+
+    private static final String INSERT_PRICE_CALCULATION_SQL = "INSERT INTO price_calculations "
+            + "(id, original_price, vat_rate, vat_amount, total_price, created_at, source_file, source_line) "
+            + "VALUES (:id, :originalPrice, :vatRate, :vatAmount, :totalPrice, :createdAt, :sourceFile, :sourceLine)";
+
+    // แถวที่ (source_file, source_line) ซ้ำจะถูก update แทน (id และ created_at เดิมคงไว้)
+    private static final String UPSERT_PRICE_CALCULATION_SQL = INSERT_PRICE_CALCULATION_SQL
+            + " ON DUPLICATE KEY UPDATE original_price = VALUES(original_price), vat_rate = VALUES(vat_rate),"
+            + " vat_amount = VALUES(vat_amount), total_price = VALUES(total_price)";
+
     private final JobRepository jobRepository;
+    private final VatRateResolver vatRateResolver;
+    private final ChunkProgressLoggingListener chunkProgressLoggingListener;
+    private final LiveProgressTracker liveProgressTracker;
+    private final JobExecutionReadModel jobExecutionReadModel;
+
+    @Value("${batch.vat-calculation.writer-mode:jpa}")
+    private String writerMode;
+
+    // ค่า default ของ commit interval (override ต่อ run ด้วย job parameter chunkSize)
+    @Value("${batch.vat-calculation.chunk-size:10}")
+    private int chunkSize;
+
+    @Value("${batch.vat-calculation.processing-mode:item}")
+    private String processingMode;
+
+    @Value("${batch.vat-calculation.reader-mode:flat-file}")
+    private String readerMode;
+
+    @Value("${batch.vat-calculation.line-mapper:bean-wrapper}")
+    private String lineMapperMode;
+
+    @Value("${batch.vat-calculation.input-file:classpath:input-data.csv}")
+    private Resource inputFile;
+
+    @Value("${batch.vat-calculation.partition.enabled:false}")
+    private boolean partitionEnabled;
+
+    @Value("${batch.vat-calculation.partition.grid-size:4}")
+    private int gridSize;
+
+    @Value("${batch.vat-calculation.partition.worker-threads:0}")
+    private int workerThreads;
+
+    @Value("${batch.vat-calculation.async.enabled:false}")
+    private boolean asyncEnabled;
+
+    @Value("${batch.vat-calculation.async.pool-size:16}")
+    private int asyncPoolSize;
+
+    @Value("${batch.vat-calculation.async.queue-capacity:1000}")
+    private int asyncQueueCapacity;
+
+    @Value("${batch.vat-calculation.async.virtual-threads:${batch.virtual-threads.enabled:false}}")
+    private boolean asyncVirtualThreads;
 
-    public VatCalculationJobConfig(JobRepository jobRepository) {
+    @Value("${batch.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    // Bulk load mode: คำนวณลงไฟล์ TSV แล้วโหลดเข้า staging table + merge ใน step ถัดไป
+    @Value("${batch.vat-calculation.bulk-load.enabled:false}")
+    private boolean bulkLoadEnabled;
+
+    @Value("${batch.vat-calculation.bulk-load.directory:${java.io.tmpdir}/vat-bulk-load}")
+    private Path bulkLoadDirectory;
+
+    // แถว staging ต่อหนึ่ง merge transaction
+    @Value("${batch.vat-calculation.bulk-load.merge-slice-size:10000}")
+    private int bulkLoadMergeSliceSize;
+
+    // Multi-file mode: ย้ายไฟล์ที่ประมวลผลเสร็จไป archive directory (ว่าง = directory "archive" ข้างไฟล์)
+    @Value("${batch.vat-calculation.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${batch.vat-calculation.archive.directory:}")
+    private String archiveDirectory;
+
+    public VatCalculationJobConfig(JobRepository jobRepository, VatRateResolver vatRateResolver,
+            ChunkProgressLoggingListener chunkProgressLoggingListener, LiveProgressTracker liveProgressTracker,
+            JobExecutionReadModel jobExecutionReadModel) {
         this.jobRepository = jobRepository;
+        this.vatRateResolver = vatRateResolver;
+        this.chunkProgressLoggingListener = chunkProgressLoggingListener;
+        this.liveProgressTracker = liveProgressTracker;
+        this.jobExecutionReadModel = jobExecutionReadModel;
     }
 
     // Step 1: Reader - อ่านข้อมูลจาก CSV file
+    // เมื่อรันแบบ partition จะอ่านเฉพาะช่วง byte หรือไฟล์ที่ partition นั้นได้รับ
     @Bean
-    public FlatFileItemReader<PriceInput> vatCalculationReader() {
-        BeanWrapperFieldSetMapper<PriceInput> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
-        fieldSetMapper.setTargetType(PriceInput.class);
+    @StepScope
+    public ItemStreamReader<PriceInput> vatCalculationReader(
+            @Value("#{stepExecutionContext['" + LineAlignedByteRangePartitioner.START_OFFSET_KEY + "']}") Long startOffset,
+            @Value("#{stepExecutionContext['" + LineAlignedByteRangePartitioner.END_OFFSET_KEY + "']}") Long endOffset,
+            @Value("#{stepExecutionContext['" + LineAlignedByteRangePartitioner.START_LINE_KEY + "']}") Long startLine,
+            @Value("#{stepExecutionContext['" + InputFilePartitioner.INPUT_FILE_KEY + "']}") String inputFileLocation,
+            @Value("#{stepExecution}") StepExecution stepExecution)
+            throws IOException {
+        Resource input = inputFileLocation != null ? RESOURCE_LOADER.getResource(inputFileLocation) : inputFile;
+        boolean partitioned = startOffset != null && endOffset != null;
+        long firstLineNumber = partitioned && startLine != null ? startLine : 1L;
+        if (stepExecution != null) {
+            recordExpectedItems(stepExecution, input, partitioned ? startOffset : 0L,
+                    partitioned ? endOffset : input.contentLength(), firstLineNumber == 1L);
+        }
+        if (READER_MODE_MMAP.equals(readerMode)) {
+            return mappedFileReader(input, partitioned ? startOffset : 0L, partitioned ? endOffset : -1L,
+                    firstLineNumber);
+        }
+        if (!READER_MODE_FLAT_FILE.equals(readerMode)) {
+            throw new IllegalArgumentException("Unknown batch.vat-calculation.reader-mode: " + readerMode);
+        }
+        Resource resource = partitioned ? new ByteRangeResource(input, startOffset, endOffset) : input;
 
         return new FlatFileItemReaderBuilder<PriceInput>()
                 .name("priceItemReader")
-                .resource(new ClassPathResource("input-data.csv"))
-                .delimited()
-                .names("price", "vatRate")
-                .linesToSkip(1) // Skip header line
-                .fieldSetMapper(fieldSetMapper)
+                .resource(resource)
+                .linesToSkip(partitioned && startOffset > 0 ? 0 : 1) // Skip header line (อยู่ใน partition แรกเท่านั้น)
+                .lineMapper(sourceTrackingLineMapper(input, priceInputLineMapper(), firstLineNumber))
                 .build();
     }
 
+    // Input size สำหรับ ETA ของ live progress (ประมาณจากตัวอย่างช่วงต้น ไม่อ่านทั้งไฟล์)
+    // เก็บใน step ExecutionContext ครั้งแรกครั้งเดียว restart จึงใช้ค่าเดิม
+    private void recordExpectedItems(StepExecution stepExecution, Resource input, long start, long end,
+            boolean includesHeader) throws IOException {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (context.containsKey(LiveProgressTracker.EXPECTED_ITEMS_KEY)) {
+            return;
+        }
+        long lines = InputLineEstimator.estimateLines(input, start, end);
+        context.putLong(LiveProgressTracker.EXPECTED_ITEMS_KEY, Math.max(0, includesHeader ? lines - 1 : lines));
+    }
+
+    // lineNumber ของ FlatFileItemReader นับจากต้น resource (รวม header) จึงเลื่อนด้วยบรรทัดแรกของ partition
+    // source คือไฟล์ทั้งไฟล์ (ไม่ใช่ ByteRangeResource) ทุก partition ของไฟล์เดียวกันจึงได้ SourceFileKey เดียวกัน
+    private LineMapper<PriceInput> sourceTrackingLineMapper(Resource source, LineMapper<PriceInput> delegate,
+            long firstLineNumber) throws IOException {
+        String sourceFile = SourceFileKey.of(source);
+        return (line, lineNumber) -> {
+            PriceInput input = delegate.mapLine(line, lineNumber);
+            input.setSourceFile(sourceFile);
+            input.setSourceLine(firstLineNumber - 1 + lineNumber);
+            return input;
+        };
+    }
+
+    // mmap = MappedPriceFileReader: ต้องเป็นไฟล์บน filesystem (เช่น file:/app/data/input/price-data.csv)
+    // และเก็บ byte offset ไว้ restart
+    private MappedPriceFileReader mappedFileReader(Resource input, long startOffset, long endOffset,
+            long firstLineNumber) throws IOException {
+        if (!input.isFile()) {
+            throw new IllegalStateException("batch.vat-calculation.reader-mode=" + READER_MODE_MMAP
+                    + " requires a filesystem input-file (file:...), got " + input);
+        }
+        return new MappedPriceFileReader(input.getFile().toPath(), startOffset, endOffset, firstLineNumber,
+                startOffset == 0);
+    }
+
+    // bean-wrapper = DelimitedLineTokenizer + BeanWrapperFieldSetMapper (reflection ต่อบรรทัด)
+    // fast         = PriceInputLineMapper (หา comma และ parse ตัวเลขตรง ๆ)
+    private LineMapper<PriceInput> priceInputLineMapper() {
+        return switch (lineMapperMode) {
+            case LINE_MAPPER_FAST -> new PriceInputLineMapper();
+            case LINE_MAPPER_BEAN_WRAPPER -> {
+                DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+                tokenizer.setNames("price", "vatRate");
+                BeanWrapperFieldSetMapper<PriceInput> fieldSetMapper = new BeanWrapperFieldSetMapper<>();
+                fieldSetMapper.setTargetType(PriceInput.class);
+                DefaultLineMapper<PriceInput> lineMapper = new DefaultLineMapper<>();
+                lineMapper.setLineTokenizer(tokenizer);
+                lineMapper.setFieldSetMapper(fieldSetMapper);
+                yield lineMapper;
+            }
+            default -> throw new IllegalArgumentException(
+                    "Unknown batch.vat-calculation.line-mapper: " + lineMapperMode);
+        };
+    }
+
     // Step 3: Writer - บันทึกข้อมูลลง Database
+    // jpa  = RepositoryItemWriter (persist ทีละ record, Hibernate รวมเป็น JDBC batch ตอน flush)
+    // jdbc = JdbcBatchItemWriter (multi-row INSERT ผ่าน businessDataSource)
+    // upsert = JdbcBatchItemWriter ด้วย INSERT ... ON DUPLICATE KEY UPDATE บน (source_file, source_line)
+    //          รัน job ซ้ำกับไฟล์เดิมได้โดยไม่เกิดแถวซ้ำ (jpa / jdbc จะ fail ด้วย unique key แทน)
+    // ทุก mode ได้ ID จาก PooledIdAllocator ตัวเดียวกัน
     @Bean
-    public RepositoryItemWriter<PriceCalculation> vatCalculationWriter(
+    public ItemWriter<PriceCalculation> vatCalculationWriter(
+            PriceCalculationRepository priceCalculationRepository,
+            @Qualifier("businessDataSource") DataSource businessDataSource,
+            PooledIdAllocator priceCalculationIdAllocator,
+            MeterRegistry meterRegistry) {
+        ItemWriter<PriceCalculation> writer = switch (writerMode) {
+            case WRITER_MODE_JPA -> repositoryWriter(priceCalculationRepository);
+            case WRITER_MODE_JDBC -> jdbcBatchWriter(businessDataSource, INSERT_PRICE_CALCULATION_SQL);
+            case WRITER_MODE_UPSERT -> jdbcBatchWriter(businessDataSource, UPSERT_PRICE_CALCULATION_SQL);
+            default -> throw new IllegalArgumentException(
+                    "Unknown batch.vat-calculation.writer-mode: " + writerMode);
+        };
+        return new MeteredItemWriter<>(new IdAssigningItemWriter(writer, priceCalculationIdAllocator),
+                writerMode, meterRegistry);
+    }
+
+    private JdbcBatchItemWriter<PriceCalculation> jdbcBatchWriter(DataSource businessDataSource, String sql) {
+        JdbcBatchItemWriter<PriceCalculation> writer = new JdbcBatchItemWriterBuilder<PriceCalculation>()
+                .dataSource(businessDataSource)
+                .sql(sql)
+                .beanMapped()
+                // upsert ที่ค่าไม่เปลี่ยนอาจได้ update count = 0 ซึ่งไม่ใช่ error
+                .assertUpdates(WRITER_MODE_JDBC.equals(writerMode))
+                .build();
+        // wrapped by MeteredItemWriter, so the container won't initialise it for us
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    private RepositoryItemWriter<PriceCalculation> repositoryWriter(
             PriceCalculationRepository priceCalculationRepository) {
         RepositoryItemWriter<PriceCalculation> writer = new RepositoryItemWriter<>();
         writer.setRepository(priceCalculationRepository);
@@ -56,29 +324,247 @@ public class VatCalculationJobConfig {
         return writer;
     }
 
+    // Bulk load mode: แต่ละ step execution (รวมถึงแต่ละ partition) เขียนไฟล์ TSV ของตัวเอง
+    @Bean
+    @StepScope
+    public StagingFileItemWriter vatCalculationStagingWriter(
+            @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+            @Value("#{stepExecution.id}") Long stepExecutionId,
+            PooledIdAllocator priceCalculationIdAllocator) {
+        return new StagingFileItemWriter(
+                BulkLoadTasklet.stagingFile(bulkLoadDirectory, jobExecutionId, stepExecutionId),
+                priceCalculationIdAllocator);
+    }
+
+    // Step scope: chunk size อ่านจาก job parameters ของ run นั้น และ adaptive policy มี state ต่อ step execution
+    @Bean
+    @StepScope
+    public CompletionPolicy vatCalculationCompletionPolicy(
+            @Value("#{stepExecution}") StepExecution stepExecution,
+            ChunkCompletionPolicyFactory chunkCompletionPolicyFactory) {
+        return chunkCompletionPolicyFactory.create(stepExecution, chunkSize);
+    }
+
     // สร้าง Step ที่รวม 3 ขั้นตอน: Read -> Process -> Write
     @Bean
     public Step processVatCalculationStep(
             @Qualifier("businessTransactionManager") PlatformTransactionManager transactionManager,
+            ItemStreamReader<PriceInput> vatCalculationReader,
+            VatCalculationProcessor vatCalculationProcessor,
+            ItemWriter<PriceCalculation> vatCalculationWriter,
+            StagingFileItemWriter vatCalculationStagingWriter,
+            @Qualifier("vatProcessingExecutor") TaskExecutor vatProcessingExecutor,
+            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener,
+            @Qualifier("vatCalculationCompletionPolicy") CompletionPolicy vatCalculationCompletionPolicy) {
+        return chunkStep("processVatCalculationStep", transactionManager, vatCalculationReader,
+                vatCalculationProcessor, bulkLoadEnabled ? vatCalculationStagingWriter : vatCalculationWriter,
+                vatProcessingExecutor, stepMetricsListener, vatCalculationCompletionPolicy);
+    }
+
+    // Worker step ที่แต่ละ partition ใช้ (reader เป็น step scope จึงได้ช่วง byte ของตัวเอง)
+    @Bean
+    public Step processVatCalculationWorkerStep(
+            @Qualifier("businessTransactionManager") PlatformTransactionManager transactionManager,
+            ItemStreamReader<PriceInput> vatCalculationReader,
             VatCalculationProcessor vatCalculationProcessor,
-            RepositoryItemWriter<PriceCalculation> vatCalculationWriter,
+            ItemWriter<PriceCalculation> vatCalculationWriter,
+            StagingFileItemWriter vatCalculationStagingWriter,
+            @Qualifier("vatProcessingExecutor") TaskExecutor vatProcessingExecutor,
+            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener,
+            @Qualifier("vatCalculationCompletionPolicy") CompletionPolicy vatCalculationCompletionPolicy) {
+        return chunkStep("processVatCalculationWorkerStep", transactionManager, vatCalculationReader,
+                vatCalculationProcessor, bulkLoadEnabled ? vatCalculationStagingWriter : vatCalculationWriter,
+                vatProcessingExecutor, stepMetricsListener, vatCalculationCompletionPolicy);
+    }
+
+    private Step chunkStep(String stepName,
+            PlatformTransactionManager transactionManager,
+            ItemStreamReader<PriceInput> reader,
+            VatCalculationProcessor processor,
+            ItemWriter<PriceCalculation> writer,
+            TaskExecutor vatProcessingExecutor,
+            BatchStepMetricsListener stepMetricsListener,
+            CompletionPolicy completionPolicy) {
+        if (PROCESSING_MODE_COLUMNAR.equals(processingMode)) {
+            return columnarChunkStep(stepName, transactionManager, reader, writer, stepMetricsListener,
+                    completionPolicy);
+        }
+        if (!PROCESSING_MODE_ITEM.equals(processingMode)) {
+            throw new IllegalArgumentException("Unknown batch.vat-calculation.processing-mode: " + processingMode);
+        }
+        if (asyncEnabled) {
+            return asyncChunkStep(stepName, transactionManager, reader, processor, writer,
+                    vatProcessingExecutor, stepMetricsListener, completionPolicy);
+        }
+        return stepMetricsListener.registerOn(chunkStepBuilder(stepName)
+                        .<PriceInput, PriceCalculation>chunk(completionPolicy, transactionManager)
+                        .reader(reader)
+                        .processor(processor) // Step 2: Processor - คำนวณ VAT
+                        .writer(writer))
+                .listener(chunkProgressLoggingListener)
+                .listener((StepExecutionListener) liveProgressTracker)
+                .listener((ChunkListener) liveProgressTracker)
+                .build();
+    }
+
+    // Async mode: processor กระจายแต่ละ item ไปที่ vatProcessingExecutor
+    // แล้ว AsyncItemWriter รอ Future ทั้ง chunk ก่อนเขียนลง DB
+    private Step asyncChunkStep(String stepName,
+            PlatformTransactionManager transactionManager,
+            ItemStreamReader<PriceInput> reader,
+            VatCalculationProcessor processor,
+            ItemWriter<PriceCalculation> writer,
+            TaskExecutor vatProcessingExecutor,
+            BatchStepMetricsListener stepMetricsListener,
+            CompletionPolicy completionPolicy) {
+        AsyncItemProcessor<PriceInput, PriceCalculation> asyncProcessor = new AsyncItemProcessor<>();
+        asyncProcessor.setDelegate(processor);
+        asyncProcessor.setTaskExecutor(vatProcessingExecutor);
+
+        AsyncItemWriter<PriceCalculation> asyncWriter = new AsyncItemWriter<>();
+        asyncWriter.setDelegate(writer);
+
+        return stepMetricsListener.registerOn(chunkStepBuilder(stepName)
+                        .<PriceInput, Future<PriceCalculation>>chunk(completionPolicy, transactionManager)
+                        .reader(reader)
+                        .processor(asyncProcessor)
+                        .writer(asyncWriter))
+                .listener(chunkProgressLoggingListener)
+                .listener((StepExecutionListener) liveProgressTracker)
+                .listener((ChunkListener) liveProgressTracker)
+                .build();
+    }
+
+    // Rate cache ต้อง preload ตาราง vat_rates ตอนเริ่มทุก chunk step (รวมถึงแต่ละ partition)
+    // InputFileArchiver ไม่ทำอะไรกับ step ที่ไม่ได้อ่านไฟล์จาก InputFilePartitioner
+    private StepBuilder chunkStepBuilder(String stepName) {
+        StepBuilder builder = new StepBuilder(stepName, jobRepository);
+        builder.listener(jobExecutionReadModel);
+        if (vatRateResolver instanceof StepExecutionListener rateCacheListener) {
+            builder.listener(rateCacheListener);
+        }
+        if (archiveEnabled) {
+            builder.listener(new InputFileArchiver(archiveDirectory.isBlank() ? null : Path.of(archiveDirectory)));
+        }
+        return builder;
+    }
+
+    // Columnar mode: ไม่มี item processor, ColumnarVatCalculationWriter คำนวณ VAT ทั้ง chunk ใน loop เดียว
+    // (ไม่ผ่าน VatCalculationProcessor และไม่ใช้ async mode, rate ยังหาผ่าน VatRateResolver)
+    private Step columnarChunkStep(String stepName,
+            PlatformTransactionManager transactionManager,
+            ItemStreamReader<PriceInput> reader,
+            ItemWriter<PriceCalculation> writer,
+            BatchStepMetricsListener stepMetricsListener,
+            CompletionPolicy completionPolicy) {
+        return stepMetricsListener.registerOn(chunkStepBuilder(stepName)
+                        .<PriceInput, PriceInput>chunk(completionPolicy, transactionManager)
+                        .reader(reader)
+                        .writer(new ColumnarVatCalculationWriter(writer, vatRateResolver)))
+                .listener(chunkProgressLoggingListener)
+                .listener((StepExecutionListener) liveProgressTracker)
+                .listener((ChunkListener) liveProgressTracker)
+                .build();
+    }
+
+    // Manager step: แบ่งไฟล์ input ตามช่วง byte แล้วกระจาย worker step ไปยัง TaskExecutor
+    @Bean
+    public Step processVatCalculationManagerStep(
+            @Qualifier("processVatCalculationWorkerStep") Step workerStep,
+            @Qualifier("vatCalculationTaskExecutor") TaskExecutor taskExecutor,
+            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener) {
+        return new StepBuilder("processVatCalculationManagerStep", jobRepository)
+                .partitioner(workerStep.getName(), new LineAlignedByteRangePartitioner(inputFile))
+                .step(workerStep)
+                .gridSize(gridSize)
+                .taskExecutor(taskExecutor)
+                .listener(stepMetricsListener)
+                .listener(jobExecutionReadModel)
+                .build();
+    }
+
+    // Multi-file mode: หนึ่ง partition ต่อไฟล์ที่ตรงกับ job parameter inputPath (step scope: resolve ตอน step เริ่ม)
+    // รายการไฟล์เก็บใน ExecutionContext ของ manager step เพื่อให้ restart ได้ partition ชุดเดิม
+    @Bean
+    @StepScope
+    public InputFilePartitioner inputFilePartitioner(
+            @Value("#{jobParameters['" + INPUT_PATH_PARAMETER + "']}") String inputPath,
+            @Value("#{stepExecution}") StepExecution stepExecution,
+            ResourceLoader resourceLoader) {
+        return new InputFilePartitioner(ResourcePatternUtils.getResourcePatternResolver(resourceLoader), inputPath,
+                stepExecution.getExecutionContext());
+    }
+
+    // Manager step ของ multi-file mode: worker step ตัวเดียวกับ byte-range partition แต่อ่านทั้งไฟล์
+    // ไฟล์ทำงานขนานกันตาม batch.vat-calculation.partition.worker-threads
+    @Bean
+    public Step processVatCalculationFilesStep(
+            @Qualifier("processVatCalculationWorkerStep") Step workerStep,
+            InputFilePartitioner inputFilePartitioner,
+            @Qualifier("vatCalculationTaskExecutor") TaskExecutor taskExecutor,
             @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener) {
-        return new StepBuilder("processVatCalculationStep", jobRepository)
-                .<PriceInput, PriceCalculation>chunk(10, transactionManager)
-                .reader(vatCalculationReader())
-                .processor(vatCalculationProcessor) // Step 2: Processor - คำนวณ VAT
-                .writer(vatCalculationWriter)
+        return new StepBuilder("processVatCalculationFilesStep", jobRepository)
+                .partitioner(workerStep.getName(), inputFilePartitioner)
+                .step(workerStep)
+                .taskExecutor(taskExecutor)
                 .listener(stepMetricsListener)
+                .listener(jobExecutionReadModel)
                 .build();
     }
 
-    // สร้าง Job ที่ประกอบด้วย Step
+    // Bulk load mode ขั้นที่ 2: โหลดไฟล์ TSV ทั้งหมดของ job execution เข้า staging แล้ว merge ทีละ slice
     @Bean
-    public Job vatCalculationJob(Step processVatCalculationStep,
+    public Step bulkLoadPriceCalculationsStep(
+            @Qualifier("businessTransactionManager") PlatformTransactionManager transactionManager,
+            @Qualifier("businessDataSource") DataSource businessDataSource,
+            @Qualifier("batchStepMetricsListener") BatchStepMetricsListener stepMetricsListener) {
+        BulkLoadTasklet tasklet = new BulkLoadTasklet(businessDataSource, bulkLoadDirectory,
+                bulkLoadMergeSliceSize);
+        return new StepBuilder("bulkLoadPriceCalculationsStep", jobRepository)
+                .tasklet(tasklet, transactionManager)
+                .listener((StepExecutionListener) tasklet)
+                .listener((StepExecutionListener) stepMetricsListener)
+                .listener(jobExecutionReadModel)
+                .build();
+    }
+
+    // Executor ของ partition workers (0 threads = ตามจำนวน CPU หรือไม่จำกัดเมื่อใช้ virtual threads)
+    @Bean
+    public TaskExecutor vatCalculationTaskExecutor(MeterRegistry meterRegistry) {
+        return TaskExecutorFactory.create("vat-worker-", workerThreads, Integer.MAX_VALUE, virtualThreads,
+                new MeteredTaskDecorator("vatCalculationTaskExecutor", meterRegistry));
+    }
+
+    // Executor สำหรับ async processing (bounded: pool/queue หรือ concurrency limit เมื่อใช้ virtual threads)
+    @Bean
+    public TaskExecutor vatProcessingExecutor(MeterRegistry meterRegistry) {
+        return TaskExecutorFactory.create("vat-async-", asyncPoolSize, asyncQueueCapacity, asyncVirtualThreads,
+                new MeteredTaskDecorator("vatProcessingExecutor", meterRegistry));
+    }
+
+    // สร้าง Job ที่ประกอบด้วย Step (แบบ partition หรือ single-threaded ตาม property)
+    // มี job parameter inputPath = multi-file mode (หนึ่ง worker ต่อไฟล์)
+    // bulk load mode จะต่อด้วย bulkLoadPriceCalculationsStep
+    @Bean
+    public Job vatCalculationJob(
+            @Qualifier("processVatCalculationStep") Step processVatCalculationStep,
+            @Qualifier("processVatCalculationManagerStep") Step processVatCalculationManagerStep,
+            @Qualifier("processVatCalculationFilesStep") Step processVatCalculationFilesStep,
+            @Qualifier("bulkLoadPriceCalculationsStep") Step bulkLoadPriceCalculationsStep,
             @Qualifier("batchJobMetricsListener") BatchJobMetricsListener jobMetricsListener) {
-        return new JobBuilder("vatCalculationJob", jobRepository)
-                .start(processVatCalculationStep)
+        Flow inputFlow = new FlowBuilder<SimpleFlow>("vatCalculationInputFlow")
+                .start(INPUT_MODE_DECIDER)
+                .on(INPUT_MODE_FILES).to(processVatCalculationFilesStep)
+                .from(INPUT_MODE_DECIDER)
+                .on(INPUT_MODE_SINGLE).to(partitionEnabled ? processVatCalculationManagerStep : processVatCalculationStep)
+                .build();
+        JobFlowBuilder job = new JobBuilder("vatCalculationJob", jobRepository).start(inputFlow);
+        if (bulkLoadEnabled) {
+            job.next(bulkLoadPriceCalculationsStep);
+        }
+        return job.end()
                 .listener(jobMetricsListener)
+                .listener(jobExecutionReadModel)
                 .build();
     }
 }
@@ -0,0 +1,42 @@
+package com.example.batch.vatcalculation.config;
+
+import com.example.batch.vatcalculation.rate.CachingVatRateResolver;
+import com.example.batch.vatcalculation.rate.SimulatedVatRateResolver;
+import com.example.batch.vatcalculation.rate.VatRateRepository;
+import com.example.batch.vatcalculation.rate.VatRateResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class VatRateConfig {
+
+    @Value("${batch.vat-rate.simulated-latency-ms:3000}")
+    private long simulatedLatencyMillis;
+
+    @Value("${batch.vat-rate.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${batch.vat-rate.cache.preload:true}")
+    private boolean preload;
+
+    @Value("${batch.vat-rate.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${batch.vat-rate.cache.expire-after-write:PT1H}")
+    private Duration expireAfterWrite;
+
+    // Resolver ที่ processor ใช้: lookup จำลอง (ช้า) โดยมี cache อยู่ด้านหน้าเมื่อเปิด cache
+    @Bean
+    public VatRateResolver vatRateResolver(VatRateRepository vatRateRepository, MeterRegistry meterRegistry) {
+        VatRateResolver lookup = new SimulatedVatRateResolver(simulatedLatencyMillis);
+        if (!cacheEnabled) {
+            return lookup;
+        }
+        return new CachingVatRateResolver(lookup, vatRateRepository, preload, maximumSize, expireAfterWrite,
+                meterRegistry);
+    }
+}
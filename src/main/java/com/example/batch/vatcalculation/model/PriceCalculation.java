@@ -1,15 +1,18 @@
 package com.example.batch.vatcalculation.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "price_calculations")
-public class PriceCalculation {
+@Table(name = "price_calculations", uniqueConstraints = @UniqueConstraint(
+        name = "uk_price_calculations_source", columnNames = { "source_file", "source_line" }))
+public class PriceCalculation implements Persistable<Long> {
 
+    // ID มาจาก PooledIdAllocator (ผ่าน IdAssigningItemWriter) ไม่ใช่ IDENTITY
+    // เพื่อให้ Hibernate batch INSERT ได้
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(name = "original_price", precision = 10, scale = 2, nullable = false)
@@ -27,6 +30,22 @@ public class PriceCalculation {
     @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMP")
     private LocalDateTime createdAt;
 
+    // database ตั้งค่าเอง (DEFAULT / ON UPDATE CURRENT_TIMESTAMP) ใช้เป็น watermark ของ incremental export
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP")
+    private LocalDateTime updatedAt;
+
+    // natural key: แถวเดิมจากไฟล์เดิมจะไม่ถูก insert ซ้ำเมื่อรัน job ใหม่ (null = ไม่ทราบที่มา)
+    @Column(name = "source_file")
+    private String sourceFile;
+
+    @Column(name = "source_line")
+    private Long sourceLine;
+
+    // save() จะ persist แทน merge (ไม่ต้อง SELECT ก่อน) เพราะ ID ถูกกำหนดไว้แล้ว
+    @Transient
+    private boolean isNew = true;
+
     public PriceCalculation() {
         this.createdAt = LocalDateTime.now();
     }
@@ -48,6 +67,17 @@ public class PriceCalculation {
         this.id = id;
     }
 
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     public BigDecimal getOriginalPrice() {
         return originalPrice;
     }
@@ -88,6 +118,33 @@ public class PriceCalculation {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    public void setSourceFile(String sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public Long getSourceLine() {
+        return sourceLine;
+    }
+
+    public void setSourceLine(Long sourceLine) {
+        this.sourceLine = sourceLine;
+    }
+
+    // คัดลอกที่มาของแถวจาก input
+    public PriceCalculation withSource(PriceInput input) {
+        this.sourceFile = input.getSourceFile();
+        this.sourceLine = input.getSourceLine();
+        return this;
+    }
+
     @Override
     public String toString() {
         return "PriceCalculation{" +
@@ -97,6 +154,8 @@ public class PriceCalculation {
                 ", vatAmount=" + vatAmount +
                 ", totalPrice=" + totalPrice +
                 ", createdAt=" + createdAt +
+                ", sourceFile=" + sourceFile +
+                ", sourceLine=" + sourceLine +
                 '}';
     }
 }
@@ -5,6 +5,9 @@ import java.math.BigDecimal;
 public class PriceInput {
     private BigDecimal price;
     private BigDecimal vatRate;
+    // ที่มาของแถว (SourceFileKey ของไฟล์ + เลขบรรทัดในไฟล์) ใช้เป็น natural key ของ price_calculations
+    private String sourceFile;
+    private Long sourceLine;
 
     public PriceInput() {
     }
@@ -30,11 +33,29 @@ public class PriceInput {
         this.vatRate = vatRate;
     }
 
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    public void setSourceFile(String sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public Long getSourceLine() {
+        return sourceLine;
+    }
+
+    public void setSourceLine(Long sourceLine) {
+        this.sourceLine = sourceLine;
+    }
+
     @Override
     public String toString() {
         return "PriceInput{" +
                 "price=" + price +
                 ", vatRate=" + vatRate +
+                ", sourceFile=" + sourceFile +
+                ", sourceLine=" + sourceLine +
                 '}';
     }
 }
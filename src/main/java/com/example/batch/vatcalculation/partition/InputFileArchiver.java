@@ -0,0 +1,59 @@
+package com.example.batch.vatcalculation.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * ย้ายไฟล์ input ของ partition (จาก {@link InputFilePartitioner}) ไป archive directory เมื่อ worker step COMPLETED
+ * <p>
+ * ไฟล์ที่ยังไม่เสร็จจะไม่ถูกย้าย จึง restart อ่านต่อได้ ส่วนไฟล์ที่ย้ายแล้วจะไม่ถูก partition อีก
+ * ถ้าย้ายไม่ได้ (เช่น volume read-only) แค่ log ไว้ ข้อมูล commit ไปแล้วและ upsert รันซ้ำได้อย่างปลอดภัย
+ */
+public class InputFileArchiver implements StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputFileArchiver.class);
+
+    private static final ResourceLoader RESOURCE_LOADER = new DefaultResourceLoader();
+
+    // null = directory "archive" ข้างไฟล์ input
+    private final Path archiveDirectory;
+
+    public InputFileArchiver(Path archiveDirectory) {
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        String location = stepExecution.getExecutionContext().getString(InputFilePartitioner.INPUT_FILE_KEY, null);
+        if (location == null || stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+        Resource resource = RESOURCE_LOADER.getResource(location);
+        try {
+            if (!resource.isFile()) {
+                logger.warn("Input {} is not a filesystem file, not archiving it", location);
+                return null;
+            }
+            Path file = resource.getFile().toPath();
+            Path directory = archiveDirectory != null ? archiveDirectory : file.resolveSibling("archive");
+            Files.createDirectories(directory);
+            Path target = Files.move(file, directory.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Archived {} to {}", file, target);
+        } catch (IOException e) {
+            logger.warn("Failed to archive input {}", location, e);
+        }
+        return null;
+    }
+}
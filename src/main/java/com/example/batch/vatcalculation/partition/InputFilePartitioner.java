@@ -0,0 +1,120 @@
+package com.example.batch.vatcalculation.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partitioner ที่สร้างหนึ่ง partition ต่อไฟล์ input (directory หรือ glob เช่น file:/app/data/input/*.csv)
+ * <p>
+ * ชื่อ partition เป็นลำดับ {@code partition0..N-1} (ไม่ใช่ชื่อไฟล์) เพื่อไม่ให้ tag {@code partition} ของ metrics
+ * โตตามจำนวนไฟล์ที่เคยรับเข้ามา ตำแหน่งไฟล์อยู่ใน ExecutionContext ของ partition เท่านั้น
+ * <p>
+ * รายการไฟล์ที่ resolve ได้ครั้งแรกเก็บไว้ใน ExecutionContext ของ manager step: ตอน restart ใช้รายการเดิม
+ * (แม้ไฟล์ที่เสร็จแล้วจะถูกย้ายไป archive) ลำดับ partition จึงชี้ไฟล์เดิม Spring Batch ข้าม partition ที่ COMPLETED
+ * และอ่านต่อจาก ExecutionContext เดิมของ partition ที่ยังไม่เสร็จ
+ */
+public class InputFilePartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputFilePartitioner.class);
+
+    public static final String INPUT_FILE_KEY = "partition.inputFile";
+
+    // รายการไฟล์ (คั่นด้วย newline) ใน ExecutionContext ของ manager step
+    static final String INPUT_FILES_KEY = "partition.inputFiles";
+
+    private static final String PARTITION_PREFIX = "partition";
+
+    // directory ที่ไม่มี wildcard จะอ่านไฟล์ CSV ทุกไฟล์ข้างใน (ไม่รวม sub-directory)
+    static final String DIRECTORY_PATTERN = "/*.csv";
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final ResourcePatternResolver resourcePatternResolver;
+    private final String inputPath;
+    private final ExecutionContext managerContext;
+
+    public InputFilePartitioner(ResourcePatternResolver resourcePatternResolver, String inputPath) {
+        this(resourcePatternResolver, inputPath, new ExecutionContext());
+    }
+
+    public InputFilePartitioner(ResourcePatternResolver resourcePatternResolver, String inputPath,
+            ExecutionContext managerContext) {
+        if (!StringUtils.hasText(inputPath)) {
+            throw new IllegalArgumentException("inputPath must not be empty");
+        }
+        this.resourcePatternResolver = resourcePatternResolver;
+        // path ที่ไม่มี prefix (เช่น /app/data/input) หมายถึงไฟล์บน filesystem
+        this.inputPath = ResourceUtils.isUrl(inputPath)
+                || inputPath.startsWith(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX)
+                ? inputPath : ResourceUtils.FILE_URL_PREFIX + inputPath;
+        this.managerContext = managerContext;
+    }
+
+    // gridSize ไม่มีผล: จำนวน partition = จำนวนไฟล์ ความขนานคุมด้วย TaskExecutor ของ manager step
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<String> files = inputFiles();
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            String name = PARTITION_PREFIX + i;
+            ExecutionContext context = new ExecutionContext();
+            context.putString(INPUT_FILE_KEY, files.get(i));
+            partitions.put(name, context);
+            logger.info("Partition {} reads {}", name, files.get(i));
+        }
+        logger.info("Found {} input files for {}", partitions.size(), inputPath);
+        return partitions;
+    }
+
+    private List<String> inputFiles() {
+        String stored = managerContext.getString(INPUT_FILES_KEY, null);
+        if (stored != null) {
+            return stored.isEmpty() ? List.of() : List.of(stored.split("\n"));
+        }
+        List<String> files = resolveFiles().stream().map(InputFilePartitioner::location).toList();
+        managerContext.putString(INPUT_FILES_KEY, String.join("\n", files));
+        return files;
+    }
+
+    private List<Resource> resolveFiles() {
+        try {
+            String pattern = inputPath;
+            if (!PATH_MATCHER.isPattern(pattern)) {
+                Resource resource = resourcePatternResolver.getResource(pattern);
+                if (resource.isFile() && resource.getFile().isDirectory()) {
+                    pattern = StringUtils.trimTrailingCharacter(pattern, '/') + DIRECTORY_PATTERN;
+                }
+            }
+            return Arrays.stream(resourcePatternResolver.getResources(pattern))
+                    .filter(Resource::isReadable)
+                    .sorted(Comparator.comparing(Resource::getFilename))
+                    .toList();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to resolve input files for " + inputPath, e);
+        }
+    }
+
+    private static String location(Resource file) {
+        try {
+            return file.getURL().toString();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to resolve location of " + file.getDescription(), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.batch.vatcalculation.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partitioner ที่แบ่งไฟล์ CSV ออกเป็นช่วง byte ตามจำนวน gridSize
+ * โดยเลื่อนขอบเขตแต่ละช่วงไปที่ต้นบรรทัดถัดไปเสมอ เพื่อไม่ให้บรรทัดใดถูกตัดครึ่ง
+ * <p>
+ * แต่ละ partition จะได้ {@link #START_OFFSET_KEY} และ {@link #END_OFFSET_KEY}
+ * ใน ExecutionContext ของตัวเอง ซึ่งถูกเก็บใน JobRepository ทำให้ restart ได้ราย partition
+ * <p>
+ * {@link #START_LINE_KEY} คือเลขบรรทัดในไฟล์ (เริ่มที่ 1 = header) ของบรรทัดแรกใน partition
+ * ใช้เป็น natural key {@code (source_file, source_line)} ที่ไม่ขึ้นกับจำนวน partition
+ */
+public class LineAlignedByteRangePartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineAlignedByteRangePartitioner.class);
+
+    public static final String START_OFFSET_KEY = "partition.startOffset";
+    public static final String END_OFFSET_KEY = "partition.endOffset";
+    public static final String START_LINE_KEY = "partition.startLine";
+    public static final String PARTITION_PREFIX = "partition";
+
+    private final Resource resource;
+
+    public LineAlignedByteRangePartitioner(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        try {
+            long length = resource.contentLength();
+            int partitionCount = Math.max(gridSize, 1);
+            long[] boundaries = new long[partitionCount + 1];
+            long[] startLines = new long[partitionCount];
+            findBoundaries(length, boundaries, startLines);
+
+            for (int i = 0; i < boundaries.length - 1; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                if (start >= end) {
+                    continue; // ไฟล์เล็กกว่าจำนวน partition
+                }
+                ExecutionContext context = new ExecutionContext();
+                context.putLong(START_OFFSET_KEY, start);
+                context.putLong(END_OFFSET_KEY, end);
+                context.putLong(START_LINE_KEY, startLines[i]);
+                partitions.put(PARTITION_PREFIX + partitions.size(), context);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to partition " + resource.getDescription(), e);
+        }
+
+        logger.info("Split {} into {} byte-range partitions", resource.getDescription(), partitions.size());
+        return partitions;
+    }
+
+    /**
+     * หาตำแหน่งเริ่มและเลขบรรทัดเริ่มของแต่ละช่วง โดยอ่านไฟล์ไปข้างหน้าเพียงครั้งเดียว
+     * (นับ '\n' ระหว่างทาง จึงต้องอ่านทุก byte ก่อน partition สุดท้าย)
+     */
+    private void findBoundaries(long length, long[] boundaries, long[] startLines) throws IOException {
+        int gridSize = startLines.length;
+        boundaries[gridSize] = length;
+        startLines[0] = 1;
+        long step = length / gridSize;
+
+        try (InputStream in = new BufferedInputStream(resource.getInputStream())) {
+            long position = 0;
+            long newlines = 0;
+            for (int i = 1; i < gridSize; i++) {
+                long target = Math.max(step * i, position);
+                newlines += skipCountingNewlines(in, target - position);
+                position = target;
+
+                // เลื่อนไปจนเจอ '\n' แล้วเริ่ม partition ที่ byte ถัดไป
+                int b;
+                while ((b = in.read()) != -1) {
+                    position++;
+                    if (b == '\n') {
+                        newlines++;
+                        break;
+                    }
+                }
+                boundaries[i] = position;
+                startLines[i] = newlines + 1;
+            }
+        }
+    }
+
+    private static long skipCountingNewlines(InputStream in, long bytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        long newlines = 0;
+        long remaining = bytes;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    newlines++;
+                }
+            }
+            remaining -= read;
+        }
+        return newlines;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.batch.vatcalculation.processor;
+
+/**
+ * คำนวณ VAT ทั้ง chunk ในรูป column ของ primitive (price scale 2, vatRate scale 4)
+ * <p>
+ * ผู้เรียกต้องใส่เฉพาะแถวที่ {@code |price| <= MAX_PRICE_UNSCALED} และ
+ * {@code 0 <= rate <= MAX_RATE_UNSCALED} ผลคูณจึงไม่เกิน 2^62 และ loop ไม่ต้องตรวจ overflow
+ * ผลลัพธ์ตรงกับ {@link FixedPointVatCalculator} (HALF_UP)
+ */
+public final class ColumnarVatCalculator {
+
+    public static final long MAX_PRICE_UNSCALED = Integer.MAX_VALUE;
+    public static final int MAX_RATE_UNSCALED = Integer.MAX_VALUE;
+
+    private static final long RATE_FACTOR = 10_000L;
+    private static final long HALF_RATE_FACTOR = RATE_FACTOR / 2;
+
+    private ColumnarVatCalculator() {
+    }
+
+    public static void calculate(long[] price, int[] rate, long[] vatAmount, long[] totalPrice, int length) {
+        for (int i = 0; i < length; i++) {
+            long product = price[i] * rate[i];
+            // (product >> 63) | 1 = sign ของ product (-1 หรือ 1): ปัดครึ่งออกจากศูนย์โดยไม่ต้อง branch
+            long vat = (product + ((product >> 63) | 1) * HALF_RATE_FACTOR) / RATE_FACTOR;
+            vatAmount[i] = vat;
+            totalPrice[i] = price[i] + vat;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.batch.vatcalculation.processor;
+
+import java.math.BigDecimal;
+
+/**
+ * คำนวณ VAT ด้วย fixed-point long แทน BigDecimal
+ * <p>
+ * price เก็บเป็น long scale 2 (สตางค์) และ vatRate เป็น long scale 4 ผลคูณจึงมี scale 6
+ * แล้วปัดเศษเป็น scale 2 แบบ HALF_UP (ปัดออกจากศูนย์เมื่อเท่ากับครึ่ง) ได้ผลตรงกับ
+ * {@code price.multiply(vatRate).setScale(2, RoundingMode.HALF_UP)} ทุกค่าที่แทนได้ด้วย long
+ * <p>
+ * ค่าที่ scale เกินหรือคูณแล้ว overflow ผู้เรียกต้องใช้ BigDecimal แทน ({@link #toUnscaled} คืน {@link #NOT_REPRESENTABLE})
+ */
+public final class FixedPointVatCalculator {
+
+    public static final int PRICE_SCALE = 2;
+    public static final int RATE_SCALE = 4;
+
+    /** ค่าที่ {@link #toUnscaled} คืนเมื่อแปลงเป็น long แบบไม่เสียความแม่นยำไม่ได้ */
+    public static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+
+    private static final long RATE_FACTOR = 10_000L;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private FixedPointVatCalculator() {
+    }
+
+    /**
+     * vatAmount (scale 2) = HALF_UP(price (scale 2) * vatRate (scale 4) / 10^4)
+     *
+     * @throws ArithmeticException ถ้าผลคูณ overflow
+     */
+    public static long vatAmount(long priceUnscaled, long rateUnscaled) {
+        long product = Math.multiplyExact(priceUnscaled, rateUnscaled);
+        long quotient = product / RATE_FACTOR;
+        long remainder = product % RATE_FACTOR;
+        if (Math.abs(remainder) * 2 >= RATE_FACTOR) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    /**
+     * totalPrice (scale 2) = price + vatAmount
+     */
+    public static long totalPrice(long priceUnscaled, long vatAmountUnscaled) {
+        return Math.addExact(priceUnscaled, vatAmountUnscaled);
+    }
+
+    /**
+     * แปลง BigDecimal เป็น unscaled long ที่ scale เป้าหมาย (0-4)
+     * คืน {@link #NOT_REPRESENTABLE} ถ้า scale ของค่าเกินเป้าหมายหรือไม่พอดี long
+     */
+    public static long toUnscaled(BigDecimal value, int targetScale) {
+        int scale = value.scale();
+        if (scale > targetScale || scale < 0 || value.precision() > 18 - (targetScale - scale)) {
+            return NOT_REPRESENTABLE;
+        }
+        return value.unscaledValue().longValue() * POWERS_OF_TEN[targetScale - scale];
+    }
+}
@@ -2,7 +2,11 @@ package com.example.batch.vatcalculation.processor;
 
 import com.example.batch.vatcalculation.model.PriceInput;
 import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.rate.SimulatedVatRateResolver;
+import com.example.batch.vatcalculation.rate.VatRateResolver;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,29 +19,93 @@ public class VatCalculationProcessor implements ItemProcessor<PriceInput, PriceC
 
         private static final Logger logger = LoggerFactory.getLogger(VatCalculationProcessor.class);
 
+        private static final long DEFAULT_SIMULATED_LATENCY_MILLIS = 3000;
+
+        // หา rate จริงจาก rate code ในแถว CSV (lookup ที่ช้า มี cache อยู่ด้านหน้าใน VatRateConfig)
+        private final VatRateResolver vatRateResolver;
+
+        // คำนวณด้วย FixedPointVatCalculator (long) แทน BigDecimal เมื่อค่าแทนได้ด้วย long
+        @Value("${batch.vat-calculation.fixed-point.enabled:false}")
+        private boolean fixedPointEnabled;
+
+        public VatCalculationProcessor() {
+                this(DEFAULT_SIMULATED_LATENCY_MILLIS);
+        }
+
+        // lookup จำลองที่ไม่มี cache (benchmark ใช้ 0 เพื่อวัดเฉพาะการคำนวณ)
+        public VatCalculationProcessor(long simulatedLatencyMillis) {
+                this(simulatedLatencyMillis, false);
+        }
+
+        public VatCalculationProcessor(long simulatedLatencyMillis, boolean fixedPointEnabled) {
+                this(new SimulatedVatRateResolver(simulatedLatencyMillis), fixedPointEnabled);
+        }
+
+        @Autowired
+        public VatCalculationProcessor(VatRateResolver vatRateResolver) {
+                this.vatRateResolver = vatRateResolver;
+        }
+
+        public VatCalculationProcessor(VatRateResolver vatRateResolver, boolean fixedPointEnabled) {
+                this.vatRateResolver = vatRateResolver;
+                this.fixedPointEnabled = fixedPointEnabled;
+        }
+
         @Override
         public PriceCalculation process(PriceInput priceInput) throws Exception {
-                logger.info("Processing price: {} with VAT rate: {}", priceInput.getPrice(), priceInput.getVatRate());
+                BigDecimal vatRate = vatRateResolver.resolve(priceInput.getVatRate());
 
-                Thread.sleep(3000);
+                PriceCalculation calculation = fixedPointEnabled ? calculateFixedPoint(priceInput.getPrice(), vatRate) : null;
+                if (calculation == null) {
+                        calculation = calculateBigDecimal(priceInput.getPrice(), vatRate);
+                }
+                calculation.withSource(priceInput);
 
+                // log ต่อแถวเฉพาะตอน debug เท่านั้น สรุปรายชุดอยู่ใน ChunkProgressLoggingListener
+                if (logger.isDebugEnabled()) {
+                        logger.debug("Processed price: {} rate: {} VAT: {} Total: {}", priceInput.getPrice(), vatRate,
+                                        calculation.getVatAmount(), calculation.getTotalPrice());
+                }
+                return calculation;
+        }
+
+        // ใช้ร่วมกับ ColumnarVatCalculationWriter สำหรับแถวที่แทนด้วย long ไม่ได้
+        public static PriceCalculation calculateBigDecimal(BigDecimal price, BigDecimal vatRate) {
                 // คำนวณ VAT Amount = Price * VAT Rate
-                BigDecimal vatAmount = priceInput.getPrice()
-                                .multiply(priceInput.getVatRate())
+                BigDecimal vatAmount = price
+                                .multiply(vatRate)
                                 .setScale(2, RoundingMode.HALF_UP);
 
                 // คำนวณ Total Price = Price + VAT Amount
-                BigDecimal totalPrice = priceInput.getPrice()
+                BigDecimal totalPrice = price
                                 .add(vatAmount)
                                 .setScale(2, RoundingMode.HALF_UP);
 
-                PriceCalculation calculation = new PriceCalculation(
-                                priceInput.getPrice(),
-                                priceInput.getVatRate(),
+                return new PriceCalculation(
+                                price,
+                                vatRate,
                                 vatAmount,
                                 totalPrice);
+        }
 
-                logger.info("Calculated VAT: {} Total: {}", vatAmount, totalPrice);
-                return calculation;
+        // คืน null ถ้าค่าแทนด้วย long ไม่ได้ (scale เกิน / overflow) ให้ไปใช้ BigDecimal แทน
+        private PriceCalculation calculateFixedPoint(BigDecimal price, BigDecimal vatRate) {
+                long priceUnscaled = FixedPointVatCalculator.toUnscaled(price, FixedPointVatCalculator.PRICE_SCALE);
+                long rateUnscaled = FixedPointVatCalculator.toUnscaled(vatRate, FixedPointVatCalculator.RATE_SCALE);
+                if (priceUnscaled == FixedPointVatCalculator.NOT_REPRESENTABLE
+                                || rateUnscaled == FixedPointVatCalculator.NOT_REPRESENTABLE) {
+                        return null;
+                }
+                try {
+                        long vatAmount = FixedPointVatCalculator.vatAmount(priceUnscaled, rateUnscaled);
+                        long totalPrice = FixedPointVatCalculator.totalPrice(priceUnscaled, vatAmount);
+                        return new PriceCalculation(
+                                        price,
+                                        vatRate,
+                                        BigDecimal.valueOf(vatAmount, FixedPointVatCalculator.PRICE_SCALE),
+                                        BigDecimal.valueOf(totalPrice, FixedPointVatCalculator.PRICE_SCALE));
+                } catch (ArithmeticException overflow) {
+                        return null;
+                }
         }
 }
@@ -0,0 +1,67 @@
+package com.example.batch.vatcalculation.rate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Cache ขนาดจำกัด (maximum size + expire after write) หน้า VatRateResolver ตัวจริง
+ * <p>
+ * เมื่อ step เริ่ม (beforeStep) จะ bulk-load ตาราง vat_rates เข้า cache ทั้งหมด
+ * rate ที่ซ้ำกันจึงไม่ต้องรอ lookup เลย ส่วน rate ที่ไม่มีในตารางจะ lookup ครั้งแรกแล้วเก็บไว้
+ * <p>
+ * hit/miss/eviction ส่งเข้า MeterRegistry ผ่าน CaffeineCacheMetrics (cache="vatRates")
+ */
+public class CachingVatRateResolver implements VatRateResolver, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingVatRateResolver.class);
+
+    static final String CACHE_NAME = "vatRates";
+
+    private final VatRateResolver delegate;
+    private final VatRateRepository repository;
+    private final boolean preload;
+    private final Cache<String, BigDecimal> cache;
+
+    public CachingVatRateResolver(VatRateResolver delegate, VatRateRepository repository, boolean preload,
+            long maximumSize, Duration expireAfterWrite, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.repository = repository;
+        this.preload = preload;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public BigDecimal resolve(BigDecimal requestedRate) {
+        return cache.get(requestedRate.toPlainString(), code -> delegate.resolve(requestedRate));
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        if (preload) {
+            Map<String, BigDecimal> rates = repository.findAll();
+            cache.putAll(rates);
+            logger.info("Preloaded {} VAT rates into the {} cache for step {}", rates.size(), CACHE_NAME,
+                    stepExecution.getStepName());
+        }
+    }
+
+    long estimatedSize() {
+        cache.cleanUp(); // ทำ eviction ที่ค้างอยู่ให้เสร็จก่อนนับ
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.batch.vatcalculation.rate;
+
+import java.math.BigDecimal;
+
+/**
+ * จำลอง lookup ที่ช้า: รอ simulatedLatencyMillis แล้วคืน rate ตามที่ระบุในแถว
+ */
+public class SimulatedVatRateResolver implements VatRateResolver {
+
+    private final long simulatedLatencyMillis;
+
+    public SimulatedVatRateResolver(long simulatedLatencyMillis) {
+        this.simulatedLatencyMillis = simulatedLatencyMillis;
+    }
+
+    @Override
+    public BigDecimal resolve(BigDecimal requestedRate) {
+        if (simulatedLatencyMillis > 0) {
+            try {
+                Thread.sleep(simulatedLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while resolving VAT rate " + requestedRate, e);
+            }
+        }
+        return requestedRate;
+    }
+}
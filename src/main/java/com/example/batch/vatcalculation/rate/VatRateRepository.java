@@ -0,0 +1,32 @@
+package com.example.batch.vatcalculation.rate;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * อ่านตาราง vat_rates (rate_code -> rate) จาก business DB
+ */
+@Repository
+public class VatRateRepository {
+
+    private static final String SELECT_ALL_SQL = "SELECT rate_code, rate FROM vat_rates";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VatRateRepository(@Qualifier("businessJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<String, BigDecimal> findAll() {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+            rates.put(rs.getString("rate_code"), rs.getBigDecimal("rate"));
+        });
+        return rates;
+    }
+}
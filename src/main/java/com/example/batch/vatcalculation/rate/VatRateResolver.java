@@ -0,0 +1,13 @@
+package com.example.batch.vatcalculation.rate;
+
+import java.math.BigDecimal;
+
+/**
+ * หา VAT rate ที่ใช้คำนวณจากค่า vatRate ในแถว CSV (ใช้เป็น rate code)
+ * <p>
+ * ใน production การหา rate คือการ lookup product/category/region ซึ่งช้า
+ */
+public interface VatRateResolver {
+
+    BigDecimal resolve(BigDecimal requestedRate);
+}
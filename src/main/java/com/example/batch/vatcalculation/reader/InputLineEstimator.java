@@ -0,0 +1,47 @@
+package com.example.batch.vatcalculation.reader;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ประมาณจำนวนบรรทัดในช่วง byte [start, end) ของไฟล์ input จากตัวอย่างช่วงต้น
+ * <p>
+ * ใช้เป็น input size ให้ live progress คำนวณ ETA โดยไม่ต้องนับทั้งไฟล์
+ * (ถ้าช่วงเล็กกว่าขนาดตัวอย่าง จะได้จำนวนบรรทัดจริง)
+ */
+public final class InputLineEstimator {
+
+    static final int SAMPLE_BYTES = 64 * 1024;
+
+    private InputLineEstimator() {
+    }
+
+    public static long estimateLines(Resource resource, long start, long end) throws IOException {
+        long length = end - start;
+        if (length <= 0) {
+            return 0;
+        }
+        byte[] sample = new byte[(int) Math.min(SAMPLE_BYTES, length)];
+        int read;
+        try (InputStream in = resource.getInputStream()) {
+            in.skipNBytes(start);
+            read = in.readNBytes(sample, 0, sample.length);
+        }
+        long newlines = 0;
+        for (int i = 0; i < read; i++) {
+            if (sample[i] == '\n') {
+                newlines++;
+            }
+        }
+        if (read == length) {
+            // อ่านครบทั้งช่วง: บรรทัดสุดท้ายอาจไม่มี '\n' ปิดท้าย
+            return read > 0 && sample[read - 1] != '\n' ? newlines + 1 : newlines;
+        }
+        if (newlines == 0) {
+            return 1;
+        }
+        return Math.round((double) length * newlines / read);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.batch.vatcalculation.reader;
+
+import com.example.batch.vatcalculation.model.PriceInput;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * อ่านไฟล์ CSV {@code price,vatRate} ผ่าน memory-mapped {@link FileChannel}
+ * <p>
+ * หา newline ใน mapped buffer แล้ว parse ตัวเลขจาก byte ตรง ๆ (ไม่สร้าง String ต่อบรรทัด)
+ * map ไฟล์ทีละ window เพื่อรองรับไฟล์ใหญ่กว่า 2GB และอ่านเฉพาะช่วง byte [start, end)
+ * เมื่อใช้กับ partition
+ * <p>
+ * เก็บ byte offset และเลขบรรทัดของบรรทัดถัดไปใน ExecutionContext ทุกครั้งที่ commit ทำให้ restart
+ * อ่านต่อจากบรรทัดที่ค้างไว้พอดี
+ * <p>
+ * แต่ละ PriceInput มี {@link SourceFileKey} และเลขบรรทัดในไฟล์ (1 = header) เป็นที่มาของแถว
+ */
+public class MappedPriceFileReader implements ItemStreamReader<PriceInput> {
+
+    // key ใน ExecutionContext เป็น "<name>.<key>" แบบเดียวกับ reader ของ Spring Batch
+    private static final String NAME = "priceMappedFileReader";
+    static final String OFFSET_KEY = NAME + ".offset";
+    static final String LINE_KEY = NAME + ".line";
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int FIELD_COUNT = 2;
+
+    private final Path file;
+    private final long startOffset;
+    private final long firstLineNumber;
+    private final long requestedEndOffset;
+    private final boolean skipHeader;
+    private final int windowSize;
+
+    private String sourceFile;
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long endOffset;
+    private long offset;
+    // เลขบรรทัด (ในไฟล์) ของบรรทัดล่าสุดที่อ่าน
+    private long lineNumber;
+    private final AsciiView view = new AsciiView();
+
+    /**
+     * @param endOffset ตำแหน่งสิ้นสุด (exclusive) หรือ {@code -1} เพื่ออ่านถึงท้ายไฟล์
+     * @param firstLineNumber เลขบรรทัดในไฟล์ของบรรทัดที่ startOffset (1 เมื่อเริ่มที่ต้นไฟล์)
+     * @param skipHeader ข้ามบรรทัดแรกของช่วง (header ของไฟล์ อยู่ในช่วงที่เริ่มที่ 0 เท่านั้น)
+     */
+    public MappedPriceFileReader(Path file, long startOffset, long endOffset, long firstLineNumber,
+            boolean skipHeader) {
+        this(file, startOffset, endOffset, firstLineNumber, skipHeader, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedPriceFileReader(Path file, long startOffset, long endOffset, long firstLineNumber, boolean skipHeader,
+            int windowSize) {
+        this.file = file;
+        this.startOffset = startOffset;
+        this.firstLineNumber = firstLineNumber;
+        this.requestedEndOffset = endOffset;
+        this.skipHeader = skipHeader;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            sourceFile = SourceFileKey.of(file);
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            endOffset = requestedEndOffset < 0 ? channel.size() : Math.min(requestedEndOffset, channel.size());
+            window = null;
+
+            if (executionContext.containsKey(OFFSET_KEY)) {
+                // restart: อ่านต่อจากบรรทัดที่ยังไม่ได้ commit
+                offset = executionContext.getLong(OFFSET_KEY);
+                lineNumber = executionContext.getLong(LINE_KEY);
+            } else {
+                offset = startOffset;
+                lineNumber = firstLineNumber - 1;
+                if (skipHeader) {
+                    offset = skipLine();
+                    lineNumber++;
+                }
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open input file: " + file, e);
+        }
+    }
+
+    @Override
+    public PriceInput read() throws Exception {
+        while (offset < endOffset) {
+            long lineEnd = nextLineEnd();
+            long next = lineEnd < endOffset ? lineEnd + 1 : endOffset;
+            int from = (int) (offset - windowStart);
+            int to = (int) (lineEnd - windowStart);
+            if (to > from && window.get(to - 1) == '\r') {
+                to--;
+            }
+            lineNumber++;
+            offset = next;
+            if (to > from) {
+                return mapLine(from, to);
+            }
+            // ข้ามบรรทัดว่าง
+        }
+        return null;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(OFFSET_KEY, offset);
+        executionContext.putLong(LINE_KEY, lineNumber);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        window = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to close input file: " + file, e);
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    private PriceInput mapLine(int from, int to) {
+        view.buffer = window;
+        int comma = -1;
+        for (int i = from; i < to; i++) {
+            if (window.get(i) == ',') {
+                if (comma >= 0) {
+                    throw parseException("Expected " + FIELD_COUNT + " fields", from, to, null);
+                }
+                comma = i;
+            }
+        }
+        if (comma < 0) {
+            throw parseException("Expected " + FIELD_COUNT + " fields", from, to, null);
+        }
+        try {
+            PriceInput input = new PriceInput(PriceInputLineMapper.parseDecimal(view, from, comma),
+                    PriceInputLineMapper.parseDecimal(view, comma + 1, to));
+            input.setSourceFile(sourceFile);
+            input.setSourceLine(lineNumber);
+            return input;
+        } catch (NumberFormatException e) {
+            throw parseException("Invalid number", from, to, e);
+        }
+    }
+
+    private FlatFileParseException parseException(String message, int from, int to, Throwable cause) {
+        byte[] line = new byte[to - from];
+        window.get(from, line);
+        String input = new String(line, StandardCharsets.UTF_8);
+        String text = message + " in line " + lineNumber + " of " + file + ": " + input;
+        return cause == null ? new FlatFileParseException(text, input, (int) lineNumber)
+                : new FlatFileParseException(text, cause, input, (int) lineNumber);
+    }
+
+    /**
+     * ตำแหน่ง (absolute) ของ '\n' ที่ปิดบรรทัดปัจจุบัน หรือ endOffset ถ้าเป็นบรรทัดสุดท้ายของช่วง
+     * จะ map window ใหม่ให้ครอบทั้งบรรทัดถ้าจำเป็น
+     */
+    private long nextLineEnd() throws IOException {
+        if (offset >= endOffset) {
+            return -1;
+        }
+        ensureMapped(offset);
+        while (true) {
+            long windowEnd = windowStart + window.limit();
+            for (int i = (int) (offset - windowStart); i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i;
+                }
+            }
+            if (windowEnd >= endOffset) {
+                return endOffset;
+            }
+            if (offset == windowStart) {
+                throw new IOException("Line at offset " + offset + " is longer than the mapping window");
+            }
+            // บรรทัดคร่อม window: map ใหม่เริ่มที่ต้นบรรทัด
+            map(offset);
+        }
+    }
+
+    private long skipLine() throws IOException {
+        long lineEnd = nextLineEnd();
+        if (lineEnd < 0) {
+            return offset;
+        }
+        return lineEnd < endOffset ? lineEnd + 1 : endOffset;
+    }
+
+    private void ensureMapped(long position) throws IOException {
+        if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+            map(position);
+        }
+    }
+
+    private void map(long position) throws IOException {
+        long size = Math.min(windowSize, endOffset - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+    }
+
+    /**
+     * CharSequence บน byte ASCII ของ mapped buffer (ใช้ซ้ำทุกบรรทัด)
+     */
+    private static final class AsciiView implements CharSequence {
+
+        private MappedByteBuffer buffer;
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.batch.vatcalculation.reader;
+
+import com.example.batch.vatcalculation.model.PriceInput;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+
+import java.math.BigDecimal;
+
+/**
+ * LineMapper สำหรับบรรทัด {@code price,vatRate} ที่ไม่ใช้ reflection
+ * <p>
+ * แทน DelimitedLineTokenizer + BeanWrapperFieldSetMapper: หา comma ตรง ๆ แล้ว parse ตัวเลขทศนิยม
+ * จาก char ในบรรทัดเป็น unscaled long + scale โดยไม่สร้าง String / FieldSet ระหว่างทาง
+ * ค่าที่ไม่ใช่รูปแบบปกติ (exponent, เกิน 18 หลัก) จะ fallback ไปใช้ {@code new BigDecimal(String)}
+ */
+public class PriceInputLineMapper implements LineMapper<PriceInput> {
+
+    private static final int FIELD_COUNT = 2;
+    private static final int MAX_LONG_DIGITS = 18;
+
+    @Override
+    public PriceInput mapLine(String line, int lineNumber) throws Exception {
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            throw new IncorrectTokenCountException(FIELD_COUNT, 1, line);
+        }
+        if (line.indexOf(',', comma + 1) >= 0) {
+            throw new IncorrectTokenCountException(FIELD_COUNT, countFields(line), line);
+        }
+        return new PriceInput(parseDecimal(line, 0, comma), parseDecimal(line, comma + 1, line.length()));
+    }
+
+    /**
+     * Parse ช่วง [start, end) ของ text เป็น BigDecimal ที่มี scale เท่ากับ {@code new BigDecimal(String)}
+     */
+    static BigDecimal parseDecimal(CharSequence text, int start, int end) {
+        // ตัด whitespace หัวท้ายแบบเดียวกับ DelimitedLineTokenizer
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int pos = start;
+        boolean negative = false;
+        if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+            negative = text.charAt(pos) == '-';
+            pos++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; pos < end; pos++) {
+            char c = text.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_LONG_DIGITS) {
+                    return fallback(text, start, end);
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return fallback(text, start, end);
+            }
+        }
+        if (digits == 0) {
+            return fallback(text, start, end);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private static BigDecimal fallback(CharSequence text, int start, int end) {
+        return new BigDecimal(text.subSequence(start, end).toString());
+    }
+
+    private static int countFields(String line) {
+        int count = 1;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == ',') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
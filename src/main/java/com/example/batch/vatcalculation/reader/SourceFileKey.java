@@ -0,0 +1,33 @@
+package com.example.batch.vatcalculation.reader;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * ค่า {@code source_file} ของ natural key {@code (source_file, source_line)}:
+ * ชื่อไฟล์ + ขนาด + เวลาแก้ไขล่าสุด (ms) เช่น {@code prices.csv@1024:1760757492000}
+ * <p>
+ * ไฟล์ใหม่ที่ใช้ชื่อซ้ำกับไฟล์ที่เคยโหลดจึงได้ key ใหม่ (ไม่ทับแถวของไฟล์เก่า) ส่วนการรันซ้ำกับไฟล์เดิมที่ไม่ถูกแก้ไข
+ * (restart, retry, ย้ายไป archive แล้วย้ายกลับ) ได้ key เดิม ไฟล์ที่ copy มาโดยไม่คง mtime ถือเป็นไฟล์ใหม่
+ * ไม่ใช้ checksum เพราะต้องอ่านทั้งไฟล์ก่อนเริ่ม step
+ */
+public final class SourceFileKey {
+
+    private SourceFileKey() {
+    }
+
+    public static String of(Resource file) throws IOException {
+        return of(file.getFilename(), file.contentLength(), file.lastModified());
+    }
+
+    public static String of(Path file) throws IOException {
+        return of(file.getFileName().toString(), Files.size(file), Files.getLastModifiedTime(file).toMillis());
+    }
+
+    static String of(String filename, long size, long lastModifiedMillis) {
+        return filename + "@" + size + ":" + lastModifiedMillis;
+    }
+}
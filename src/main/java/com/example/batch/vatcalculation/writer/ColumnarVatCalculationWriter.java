@@ -0,0 +1,102 @@
+package com.example.batch.vatcalculation.writer;
+
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.model.PriceInput;
+import com.example.batch.vatcalculation.processor.ColumnarVatCalculator;
+import com.example.batch.vatcalculation.processor.FixedPointVatCalculator;
+import com.example.batch.vatcalculation.processor.VatCalculationProcessor;
+import com.example.batch.vatcalculation.rate.VatRateResolver;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar processing mode: รับ PriceInput ทั้ง chunk (step ไม่มี item processor)
+ * แปลงเป็น column {@code long[] price} / {@code int[] rate} คำนวณ VAT ใน loop เดียวด้วย
+ * {@link ColumnarVatCalculator} แล้วส่ง PriceCalculation ทั้ง chunk ให้ batch writer
+ * <p>
+ * แถวที่แทนด้วย column ไม่ได้ (scale เกิน / ค่าใหญ่เกิน) คำนวณด้วย BigDecimal แบบเดิม
+ * <p>
+ * rate ของแต่ละแถวหาผ่าน VatRateResolver เหมือน item mode (ปกติ hit cache ทั้งหมด)
+ * <p>
+ * ถ้า delegate เป็น ItemStream (เช่น StagingFileItemWriter ของ bulk load mode) จะส่ง open/update/close ต่อให้
+ */
+public class ColumnarVatCalculationWriter implements ItemStreamWriter<PriceInput> {
+
+    private final ItemWriter<PriceCalculation> delegate;
+    private final VatRateResolver vatRateResolver;
+
+    public ColumnarVatCalculationWriter(ItemWriter<PriceCalculation> delegate, VatRateResolver vatRateResolver) {
+        this.delegate = delegate;
+        this.vatRateResolver = vatRateResolver;
+    }
+
+    @Override
+    public void write(Chunk<? extends PriceInput> chunk) throws Exception {
+        List<? extends PriceInput> items = chunk.getItems();
+        int size = items.size();
+        long[] price = new long[size];
+        int[] rate = new int[size];
+        long[] vatAmount = new long[size];
+        long[] totalPrice = new long[size];
+        BigDecimal[] vatRates = new BigDecimal[size];
+        boolean[] fallback = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            PriceInput item = items.get(i);
+            vatRates[i] = vatRateResolver.resolve(item.getVatRate());
+            long p = FixedPointVatCalculator.toUnscaled(item.getPrice(), FixedPointVatCalculator.PRICE_SCALE);
+            long r = FixedPointVatCalculator.toUnscaled(vatRates[i], FixedPointVatCalculator.RATE_SCALE);
+            if (p == FixedPointVatCalculator.NOT_REPRESENTABLE || r == FixedPointVatCalculator.NOT_REPRESENTABLE
+                    || Math.abs(p) > ColumnarVatCalculator.MAX_PRICE_UNSCALED
+                    || r < 0 || r > ColumnarVatCalculator.MAX_RATE_UNSCALED) {
+                fallback[i] = true; // แถวนี้ price/rate = 0 ใน column แล้วคำนวณใหม่ด้านล่าง
+                continue;
+            }
+            price[i] = p;
+            rate[i] = (int) r;
+        }
+
+        ColumnarVatCalculator.calculate(price, rate, vatAmount, totalPrice, size);
+
+        List<PriceCalculation> calculations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PriceInput item = items.get(i);
+            PriceCalculation calculation = fallback[i]
+                    ? VatCalculationProcessor.calculateBigDecimal(item.getPrice(), vatRates[i])
+                    : new PriceCalculation(item.getPrice(), vatRates[i],
+                            BigDecimal.valueOf(vatAmount[i], FixedPointVatCalculator.PRICE_SCALE),
+                            BigDecimal.valueOf(totalPrice[i], FixedPointVatCalculator.PRICE_SCALE));
+            calculations.add(calculation.withSource(item));
+        }
+        delegate.write(new Chunk<>(calculations));
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+}
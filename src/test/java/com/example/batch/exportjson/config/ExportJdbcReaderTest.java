@@ -0,0 +1,132 @@
+package com.example.batch.exportjson.config;
+
+import com.example.batch.exportjson.model.VatCalculationExport;
+import com.example.batch.exportjson.watermark.ExportWatermark;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportJdbcReaderTest {
+
+    private static final LocalDateTime LOADED_AT = LocalDateTime.of(2025, 8, 23, 5, 6, 1);
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 1; i <= 25; i++) {
+            jdbcTemplate.update("INSERT INTO price_calculations "
+                    + "(original_price, vat_rate, vat_amount, total_price, created_at, updated_at) "
+                    + "VALUES (?, 0.07, 0.07, 1.07, CURRENT_TIMESTAMP, ?)", i, Timestamp.valueOf(LOADED_AT));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"keyset", "cursor"})
+    void testJdbcReaderReturnsAllRowsInIdOrder(String readerMode) throws Exception {
+        // Given
+        ExportJsonJobConfig config = new ExportJsonJobConfig(null);
+        ReflectionTestUtils.setField(config, "readerMode", readerMode);
+        ReflectionTestUtils.setField(config, "pageSize", 10);
+        ReflectionTestUtils.setField(config, "fetchSize", 10);
+        ItemStreamReader<VatCalculationExport> reader = config.exportJdbcReader(dataSource, ExportWatermark.START,
+                LOADED_AT, null);
+
+        // When
+        List<VatCalculationExport> items = readAll(reader);
+
+        // Then
+        assertEquals(25, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i + 1, items.get(i).getId());
+            assertEquals(0, new BigDecimal(i + 1).compareTo(items.get(i).getOriginalPrice()));
+        }
+        assertNotNull(items.get(0).getProcessedAt());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"keyset", "cursor"})
+    void testJdbcReaderSkipsRowsUpToWatermark(String readerMode) throws Exception {
+        // Given
+        ExportJsonJobConfig config = new ExportJsonJobConfig(null);
+        ReflectionTestUtils.setField(config, "readerMode", readerMode);
+        ReflectionTestUtils.setField(config, "pageSize", 10);
+        ReflectionTestUtils.setField(config, "fetchSize", 10);
+        ItemStreamReader<VatCalculationExport> reader = config.exportJdbcReader(dataSource,
+                new ExportWatermark(LOADED_AT, 20L), LOADED_AT, null);
+
+        // When
+        List<VatCalculationExport> items = readAll(reader);
+
+        // Then
+        assertEquals(5, items.size());
+        assertEquals(21L, items.get(0).getId());
+        assertEquals(25L, items.get(4).getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"keyset", "cursor"})
+    void testJdbcReaderReturnsUpdatedRowsAfterWatermarkUpToCutoff(String readerMode) throws Exception {
+        // Given: export ครบถึง id 25 แล้ว จากนั้นแถว 3 ถูก upsert และแถว 7 ถูกแก้หลังเวลาตัด
+        jdbcTemplate.update("UPDATE price_calculations SET original_price = 300, updated_at = ? WHERE id = 3",
+                Timestamp.valueOf(LOADED_AT.plusSeconds(5)));
+        jdbcTemplate.update("UPDATE price_calculations SET original_price = 700, updated_at = ? WHERE id = 7",
+                Timestamp.valueOf(LOADED_AT.plusSeconds(20)));
+        ExportJsonJobConfig config = new ExportJsonJobConfig(null);
+        ReflectionTestUtils.setField(config, "readerMode", readerMode);
+        ReflectionTestUtils.setField(config, "pageSize", 10);
+        ReflectionTestUtils.setField(config, "fetchSize", 10);
+        ItemStreamReader<VatCalculationExport> reader = config.exportJdbcReader(dataSource,
+                new ExportWatermark(LOADED_AT, 25L), LOADED_AT.plusSeconds(10), null);
+
+        // When
+        List<VatCalculationExport> items = readAll(reader);
+
+        // Then
+        assertEquals(1, items.size());
+        assertEquals(3L, items.get(0).getId());
+        assertEquals(0, new BigDecimal("300").compareTo(items.get(0).getOriginalPrice()));
+        assertEquals(LOADED_AT.plusSeconds(5), items.get(0).getUpdatedAt());
+    }
+
+    private static List<VatCalculationExport> readAll(ItemStreamReader<VatCalculationExport> reader) throws Exception {
+        ((InitializingBean) reader).afterPropertiesSet();
+        List<VatCalculationExport> items = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        VatCalculationExport item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        reader.close();
+        return items;
+    }
+}
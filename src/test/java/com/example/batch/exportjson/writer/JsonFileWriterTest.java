@@ -0,0 +1,151 @@
+package com.example.batch.exportjson.writer;
+
+import com.example.batch.exportjson.model.VatCalculationExport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFileWriterTest {
+
+    @TempDir
+    Path outputDirectory;
+
+    @Test
+    void testChunksAreAppendedToSingleFile() throws Exception {
+        // Given
+        JsonFileWriter writer = new JsonFileWriter(outputDirectory.toString(), false, 8192, 42L, "json", "none");
+
+        // When
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(export(1L, "100.00"), export(2L, "250.50")));
+        writer.write(Chunk.of(export(3L, "75.80")));
+        writer.afterStep(step(BatchStatus.COMPLETED));
+        writer.close();
+
+        // Then
+        File[] files = outputDirectory.toFile().listFiles((dir, name) -> name.endsWith(".json")
+                && !name.endsWith(".manifest.json"));
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        assertTrue(files[0].getName().endsWith("_42.json"));
+
+        JsonNode root = new ObjectMapper().readTree(files[0]);
+        assertEquals(3, root.get("vatCalculations").size());
+        assertEquals(3, root.get("exportInfo").get("recordCount").asInt());
+        assertEquals(0, new BigDecimal("250.50").compareTo(
+                root.get("vatCalculations").get(1).get("originalPrice").decimalValue()));
+    }
+
+    @Test
+    void testEmptyExportStillProducesValidDocument() throws Exception {
+        // Given
+        JsonFileWriter writer = new JsonFileWriter(outputDirectory.toString(), true, 8192, 7L, "json", "none");
+
+        // When
+        writer.open(new ExecutionContext());
+        writer.afterStep(step(BatchStatus.COMPLETED));
+        writer.close();
+
+        // Then
+        File[] files = outputDirectory.toFile().listFiles((dir, name) -> !name.endsWith(".manifest.json"));
+        assertNotNull(files);
+        JsonNode root = new ObjectMapper().readTree(files[0]);
+        assertEquals(0, root.get("vatCalculations").size());
+        assertEquals(0, root.get("exportInfo").get("recordCount").asInt());
+    }
+
+    @Test
+    void testFailedStepLeavesUnterminatedPartialFileWithoutManifest() throws Exception {
+        // Given
+        JsonFileWriter writer = new JsonFileWriter(outputDirectory.toString(), false, 8192, 11L, "json", "none");
+
+        // When
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(export(1L, "100.00")));
+        writer.afterStep(step(BatchStatus.FAILED));
+        writer.close();
+
+        // Then: เหลือแค่ไฟล์ .partial ที่ไม่มี closing bracket / exportInfo และไม่มี manifest
+        File[] files = outputDirectory.toFile().listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        assertTrue(files[0].getName().endsWith("_11.json" + JsonFileWriter.PARTIAL_SUFFIX));
+        String content = Files.readString(files[0].toPath());
+        assertFalse(content.contains("exportInfo"));
+        assertThrows(JsonProcessingException.class, () -> new ObjectMapper().readTree(content));
+    }
+
+    @Test
+    void testGzipNdjsonExportWritesOneRecordPerLineAndManifest() throws Exception {
+        // Given
+        JsonFileWriter writer = new JsonFileWriter(outputDirectory.toString(), true, 8192, 9L, "ndjson", "gzip");
+
+        // When
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(export(1L, "100.00"), export(2L, "250.50")));
+        writer.write(Chunk.of(export(3L, "75.80")));
+        writer.afterStep(step(BatchStatus.COMPLETED));
+        writer.close();
+
+        // Then
+        File[] files = outputDirectory.toFile().listFiles((dir, name) -> name.endsWith("_9.ndjson.gz"));
+        assertNotNull(files);
+        assertEquals(1, files.length);
+
+        byte[] content;
+        try (InputStream in = new GZIPInputStream(new FileInputStream(files[0]))) {
+            content = in.readAllBytes();
+        }
+        List<String> lines = new String(content, StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals(3L, new ObjectMapper().readTree(lines.get(2)).get("id").asLong());
+
+        JsonNode manifest = new ObjectMapper().readTree(new File(files[0].getPath() + ".manifest.json"));
+        assertEquals(files[0].getName(), manifest.get("fileName").asText());
+        assertEquals(3, manifest.get("recordCount").asInt());
+        assertEquals(content.length, manifest.get("uncompressedBytes").asLong());
+        assertEquals(files[0].length(), manifest.get("fileBytes").asLong());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(files[0].toPath()))),
+                manifest.get("checksum").asText());
+    }
+
+    private static StepExecution step(BatchStatus status) {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.setStatus(status);
+        return stepExecution;
+    }
+
+    private static VatCalculationExport export(Long id, String price) {
+        VatCalculationExport export = new VatCalculationExport();
+        export.setId(id);
+        export.setOriginalPrice(new BigDecimal(price));
+        export.setVatRate(new BigDecimal("0.07"));
+        export.setVatAmount(new BigDecimal(price).multiply(new BigDecimal("0.07")).setScale(2, RoundingMode.HALF_UP));
+        export.setTotalPrice(new BigDecimal(price).add(export.getVatAmount()));
+        export.setProcessedAt(LocalDateTime.of(2025, 8, 23, 5, 6, 1));
+        return export;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.batch.housekeeping.tasklet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchMetadataPurgeTaskletTest {
+
+    private EmbeddedDatabase database;
+    private JobRepository jobRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(new DataSourceTransactionManager(database));
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testPurgesExpiredExecutionsInBoundedBatches(@TempDir Path archiveDirectory) throws Exception {
+        // Given: 5 executions เก่า (จบเมื่อ 40 วันก่อน), 1 execution ใหม่ และ 1 execution ที่ยังรันอยู่
+        LocalDateTime old = LocalDateTime.now().minusDays(40);
+        for (long run = 1; run <= 5; run++) {
+            execution(run, BatchStatus.COMPLETED, old);
+        }
+        JobExecution recent = execution(6L, BatchStatus.COMPLETED, LocalDateTime.now());
+        JobExecution running = execution(7L, BatchStatus.STARTED, null);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Path archiveFile = archiveDirectory.resolve("archive.ndjson");
+        BatchMetadataPurgeTasklet tasklet = new BatchMetadataPurgeTasklet(database, registry,
+                LocalDateTime.now().minusDays(30), 2, archiveFile);
+        StepContribution contribution = new StepContribution(
+                MetaDataInstanceFactory.createStepExecution());
+
+        // When: batch ละ 2 executions -> 2, 2, 1
+        List<RepeatStatus> statuses = List.of(
+                tasklet.execute(contribution, null),
+                tasklet.execute(contribution, null),
+                tasklet.execute(contribution, null));
+
+        // Then
+        assertEquals(List.of(RepeatStatus.CONTINUABLE, RepeatStatus.CONTINUABLE, RepeatStatus.FINISHED), statuses);
+        assertEquals(5, contribution.getWriteCount());
+        assertEquals(List.of(recent.getId(), running.getId()), jdbcTemplate.queryForList(
+                "SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION ORDER BY JOB_EXECUTION_ID", Long.class));
+        assertEquals(2, count("BATCH_JOB_INSTANCE"));
+        assertEquals(2, count("BATCH_STEP_EXECUTION"));
+        assertEquals(2, count("BATCH_STEP_EXECUTION_CONTEXT"));
+        assertEquals(5, registry.get(BatchMetadataPurgeTasklet.PURGED_COUNTER)
+                .tag("table", "batch_job_execution").counter().count());
+        assertEquals(5, registry.get(BatchMetadataPurgeTasklet.PURGED_COUNTER)
+                .tag("table", "batch_step_execution_context").counter().count());
+        assertEquals(5, Files.readAllLines(archiveFile).size());
+        assertTrue(Files.readAllLines(archiveFile).get(0).contains("\"JOB_NAME\":\"vatCalculationJob\""));
+    }
+
+    private JobExecution execution(long run, BatchStatus status, LocalDateTime endTime) throws Exception {
+        JobExecution execution = jobRepository.createJobExecution("vatCalculationJob",
+                new JobParametersBuilder().addLong("run", run).toJobParameters());
+        StepExecution step = execution.createStepExecution("processVatCalculationStep");
+        jobRepository.add(step);
+        jobRepository.updateExecutionContext(step);
+        execution.setStartTime(endTime != null ? endTime.minusMinutes(5) : LocalDateTime.now());
+        execution.setStatus(status);
+        execution.setEndTime(endTime);
+        jobRepository.update(execution);
+        return execution;
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
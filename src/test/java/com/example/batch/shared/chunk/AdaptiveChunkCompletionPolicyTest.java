@@ -0,0 +1,99 @@
+package com.example.batch.shared.chunk;
+
+import com.example.batch.shared.config.BatchStepMetricsListener;
+import com.example.batch.shared.config.BatchStepMetricsListener.ChunkWriteSample;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveChunkCompletionPolicyTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void testGrowsAndShrinksTowardsTargetWriteTime() {
+        // Given: target 100ms ต่อ chunk write
+        AtomicReference<ChunkWriteSample> lastWrite = new AtomicReference<>();
+        AdaptiveChunkCompletionPolicy policy = new AdaptiveChunkCompletionPolicy(100, 10, 1_000,
+                Duration.ofMillis(100), lastWrite::get);
+
+        // When / Then: write เร็ว (100 items ใน 10ms) -> โตได้ไม่เกิน 2 เท่าต่อ chunk
+        policy.start(null);
+        assertEquals(100, policy.getChunkSize());
+        lastWrite.set(new ChunkWriteSample(100, 10 * MILLIS));
+        policy.start(null);
+        assertEquals(200, policy.getChunkSize());
+
+        // sample เดิม (ไม่มี write ใหม่) ไม่ปรับซ้ำ
+        policy.start(null);
+        assertEquals(200, policy.getChunkSize());
+
+        // write เร็วต่อเนื่อง -> ชน max-size
+        for (int chunk = 0; chunk < 5; chunk++) {
+            lastWrite.set(new ChunkWriteSample(policy.getChunkSize(), policy.getChunkSize() * 100_000L));
+            policy.start(null);
+        }
+        assertEquals(1_000, policy.getChunkSize());
+
+        // write ช้าลงมาก (1,000 items ใน 1s) -> ลดลงครึ่งต่อ chunk จนเข้าใกล้ target
+        for (int chunk = 0; chunk < 10; chunk++) {
+            lastWrite.set(new ChunkWriteSample(policy.getChunkSize(), policy.getChunkSize() * MILLIS));
+            policy.start(null);
+        }
+        assertEquals(100, policy.getChunkSize(), 5);
+    }
+
+    @Test
+    void testCompletesChunkAtCurrentSize() {
+        // Given
+        AdaptiveChunkCompletionPolicy policy = new AdaptiveChunkCompletionPolicy(3, 1, 10,
+                Duration.ofMillis(100), () -> null);
+
+        // When
+        RepeatContext context = policy.start(null);
+        policy.update(context);
+        policy.update(context);
+        boolean completeAfterTwo = policy.isComplete(context);
+        policy.update(context);
+
+        // Then
+        assertFalse(completeAfterTwo);
+        assertTrue(policy.isComplete(context));
+    }
+
+    @Test
+    void testFactoryReadsChunkSizeAndAdaptiveFlagFromJobParameters() {
+        // Given
+        ChunkCompletionPolicyFactory factory = new ChunkCompletionPolicyFactory(
+                new BatchStepMetricsListener(new SimpleMeterRegistry()), false, 10, 10_000, Duration.ofMillis(500));
+        StepExecution defaults = MetaDataInstanceFactory.createStepExecution();
+        StepExecution overridden = MetaDataInstanceFactory.createStepExecution(new JobParametersBuilder()
+                .addString(ChunkCompletionPolicyFactory.CHUNK_SIZE_PARAMETER, "2500")
+                .addString(ChunkCompletionPolicyFactory.ADAPTIVE_PARAMETER, "true")
+                .toJobParameters());
+        StepExecution invalid = MetaDataInstanceFactory.createStepExecution(new JobParametersBuilder()
+                .addLong(ChunkCompletionPolicyFactory.CHUNK_SIZE_PARAMETER, 0L)
+                .toJobParameters());
+
+        // When
+        CompletionPolicy fixed = factory.create(defaults, 1_000);
+        CompletionPolicy adaptive = factory.create(overridden, 1_000);
+
+        // Then
+        assertInstanceOf(SimpleCompletionPolicy.class, fixed);
+        assertEquals(1_000, ((SimpleCompletionPolicy) fixed).getChunkSize());
+        assertInstanceOf(AdaptiveChunkCompletionPolicy.class, adaptive);
+        assertEquals(2_500, ((AdaptiveChunkCompletionPolicy) adaptive).getChunkSize());
+        assertThrows(IllegalArgumentException.class, () -> factory.create(invalid, 1_000));
+    }
+}
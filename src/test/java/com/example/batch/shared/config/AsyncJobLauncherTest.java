@@ -0,0 +1,80 @@
+package com.example.batch.shared.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AsyncJobLauncherTest {
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    @Qualifier("metadataRetentionJob")
+    private Job job;
+
+    @Autowired
+    @Qualifier("batchTransactionManager")
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testThrowsWhenExecutorRejectsLaunch() throws Exception {
+        // Given: executor ที่ queue เต็ม
+        TaskExecutor fullExecutor = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+        AsyncJobLauncher launcher = new AsyncJobLauncher(jobRepository, fullExecutor);
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addLong("time", System.nanoTime())
+                .toJobParameters();
+
+        // When / Then: caller ได้ exception แทน execution ที่ดูเหมือนเริ่มแล้ว
+        assertThrows(TaskRejectedException.class, () -> launcher.run(job, jobParameters));
+        assertEquals(BatchStatus.FAILED,
+                jobExplorer.getLastJobExecution(jobExplorer.getLastJobInstance(job.getName())).getStatus());
+    }
+
+    @Test
+    void testJobFailingWithRejectedStepTaskIsNotReportedAsLauncherRejection() throws Exception {
+        // Given: launcher รับงาน แต่ step ใน job fail ด้วย TaskRejectedException (เช่น executor ของ partition เต็ม)
+        Job rejectingJob = new JobBuilder("rejectingStepJob", jobRepository)
+                .start(new StepBuilder("rejectingStep", jobRepository)
+                        .tasklet((contribution, chunkContext) -> {
+                            throw new TaskRejectedException("partition executor full");
+                        }, transactionManager)
+                        .build())
+                .build();
+        AsyncJobLauncher launcher = new AsyncJobLauncher(jobRepository, new SyncTaskExecutor());
+
+        // When
+        JobExecution execution = launcher.run(rejectingJob, new JobParametersBuilder()
+                .addLong("time", System.nanoTime())
+                .toJobParameters());
+
+        // Then: job รันแล้วจริง ได้ execution ที่ FAILED กลับไป ไม่ใช่ 503
+        assertEquals(BatchStatus.FAILED, execution.getStatus());
+        assertTrue(execution.getExitStatus().getExitDescription().contains(TaskRejectedException.class.getName()));
+    }
+}
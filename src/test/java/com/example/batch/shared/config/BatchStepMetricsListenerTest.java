@@ -0,0 +1,124 @@
+package com.example.batch.shared.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchStepMetricsListenerTest {
+
+    @Test
+    void testConcurrentPartitionsKeepSeparateTimingState() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BatchStepMetricsListener listener = new BatchStepMetricsListener(registry);
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution("vatCalculationJob", 1L, 1L);
+        int partitions = 4;
+        int itemsPerPartition = 50;
+        CyclicBarrier barrier = new CyclicBarrier(partitions);
+
+        // When: ทุก partition ใช้ listener ตัวเดียวกันและสลับกันเรียก callback พร้อมกัน
+        ExecutorService executor = Executors.newFixedThreadPool(partitions);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution(
+                        jobExecution, "workerStep:partition" + p, 10L + p);
+                futures.add(executor.submit(() -> {
+                    runStep(listener, registry, stepExecution, itemsPerPartition, barrier);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then: step duration แยกตาม partition
+        assertEquals(0, listener.activeStepCount());
+        for (int p = 0; p < partitions; p++) {
+            Timer duration = registry.get("batch.step.duration").tag("partition", "partition" + p).timer();
+            assertEquals(1, duration.count());
+            assertEquals("workerStep", duration.getId().getTag("step_name"));
+        }
+
+        // Then: histogram timer มี series เดียวต่อ worker step (ไม่มี tag partition)
+        for (String name : List.of("batch.item.read", "batch.item.process",
+                "batch.chunk.write", "batch.chunk.duration")) {
+            Timer timer = registry.get(name).tag("step_name", "workerStep").timer();
+            assertNull(timer.getId().getTag("partition"), name);
+        }
+        assertEquals(partitions * itemsPerPartition, registry.get("batch.item.read").timer().count());
+        assertEquals(partitions * itemsPerPartition, registry.get("batch.item.process").timer().count());
+        assertEquals(partitions, registry.get("batch.chunk.write").timer().count());
+        assertEquals(partitions, registry.get("batch.chunk.duration").timer().count());
+
+        // Then: throughput gauge ถูกลบเมื่อ partition จบ
+        assertEquals(0, listener.throughputGaugeCount());
+        assertTrue(registry.find("batch.step.throughput").gauges().isEmpty());
+    }
+
+    @Test
+    void testItemCallbacksOutsideStepAreIgnored() {
+        // Given
+        BatchStepMetricsListener listener = new BatchStepMetricsListener(new SimpleMeterRegistry());
+
+        // When / Then: ไม่มี step context บน thread นี้ ต้องไม่ throw
+        assertDoesNotThrow(() -> {
+            listener.beforeRead();
+            listener.afterRead("item");
+            listener.onWriteError(new IllegalStateException(), Chunk.of("item"));
+        });
+    }
+
+    private static void runStep(BatchStepMetricsListener listener, MeterRegistry registry,
+            StepExecution stepExecution, int items, CyclicBarrier barrier) throws Exception {
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            listener.beforeStep(stepExecution);
+            barrier.await();
+            ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+            listener.beforeChunk(chunkContext);
+            Chunk<Object> chunk = new Chunk<>();
+            for (int i = 0; i < items; i++) {
+                listener.beforeRead();
+                listener.afterRead(i);
+                listener.beforeProcess(i);
+                listener.afterProcess(i, i);
+                chunk.add(i);
+                stepExecution.setReadCount(stepExecution.getReadCount() + 1);
+            }
+            listener.beforeWrite(chunk);
+            listener.afterWrite(chunk);
+            stepExecution.setWriteCount(items);
+            listener.afterChunk(chunkContext);
+            // throughput gauge ของ partition นี้มีค่าระหว่างที่ step ยังรันอยู่
+            String partition = stepExecution.getStepName().substring(stepExecution.getStepName().indexOf(':') + 1);
+            assertTrue(registry.get("batch.step.throughput")
+                    .tag("partition", partition).tag("operation", "write").gauge().value() > 0);
+            stepExecution.setStatus(BatchStatus.COMPLETED);
+            listener.afterStep(stepExecution);
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.batch.shared.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConfigTest {
+
+    @Test
+    void testPoolsAreSizedToPartitionConcurrency() {
+        // Given
+        DatabaseConfig config = config("jdbc:h2:mem:pools");
+        ReflectionTestUtils.setField(config, "partitionEnabled", true);
+        ReflectionTestUtils.setField(config, "gridSize", 8);
+
+        // When
+        HikariDataSource batch = config.batchDataSource();
+        HikariDataSource business = config.businessDataSource();
+
+        // Then
+        assertEquals(DatabaseConfig.BATCH_POOL_NAME, batch.getPoolName());
+        assertEquals(12, batch.getMaximumPoolSize());
+        assertEquals(DatabaseConfig.BUSINESS_POOL_NAME, business.getPoolName());
+        assertEquals(18, business.getMaximumPoolSize());
+        assertTrue(business.getDataSourceProperties().isEmpty(), "MySQL driver flags only apply to MySQL URLs");
+    }
+
+    @Test
+    void testMySqlPoolsEnableStatementCachingAndBatchRewrite() {
+        // Given
+        DatabaseConfig config = config("jdbc:mysql://localhost:3306/batch_db");
+
+        // When
+        HikariDataSource business = config.businessDataSource();
+
+        // Then
+        assertEquals(4, business.getMaximumPoolSize());
+        assertEquals("true", business.getDataSourceProperties().getProperty("cachePrepStmts"));
+        assertEquals("true", business.getDataSourceProperties().getProperty("useServerPrepStmts"));
+        assertEquals("true", business.getDataSourceProperties().getProperty("rewriteBatchedStatements"));
+    }
+
+    private static DatabaseConfig config(String url) {
+        DatabaseConfig config = new DatabaseConfig();
+        for (String prefix : new String[] { "batch", "business" }) {
+            ReflectionTestUtils.setField(config, prefix + "Url", url);
+            ReflectionTestUtils.setField(config, prefix + "Username", "sa");
+            ReflectionTestUtils.setField(config, prefix + "Password", "");
+            ReflectionTestUtils.setField(config, prefix + "DriverClassName",
+                    url.startsWith("jdbc:mysql:") ? "com.mysql.cj.jdbc.Driver" : "org.h2.Driver");
+        }
+        return config;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.batch.shared.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares launches per second of the synchronous launcher (one request thread blocked per job)
+ * with the asynchronous launcher used by the REST API.
+ * <p>
+ * Run with: {@code mvn test -Dtest=JobLaunchThroughputBenchmarkTest -Dbenchmark=true}
+ * (add {@code -Dbatch.virtual-threads.enabled=true} on JDK 21 to use virtual threads)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JobLaunchThroughputBenchmarkTest {
+
+    private static final int LAUNCHES = 200;
+    private static final int REQUEST_THREADS = 32;
+    private static final long JOB_WORK_MILLIS = 50;
+
+    private static final AtomicLong RUN_ID = new AtomicLong();
+
+    @Autowired
+    @Qualifier("jobLauncher")
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private AsyncJobLauncher asyncJobLauncher;
+
+    @Autowired
+    @Qualifier("benchmarkJob")
+    private Job benchmarkJob;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Test
+    void compareLaunchThroughput() throws Exception {
+        // warm up both paths
+        launchAll(jobLauncher, 10);
+        awaitCompletion(launchAll(asyncJobLauncher::run, 10));
+
+        // Synchronous launcher
+        long start = System.nanoTime();
+        List<Long> syncExecutions = launchAll(jobLauncher, LAUNCHES);
+        double syncSeconds = seconds(start);
+
+        // Asynchronous launcher
+        start = System.nanoTime();
+        List<Long> asyncExecutions = launchAll(asyncJobLauncher::run, LAUNCHES);
+        double asyncLaunchSeconds = seconds(start);
+        awaitCompletion(asyncExecutions);
+        double asyncCompleteSeconds = seconds(start);
+
+        System.out.printf("%nJob launch throughput (%d launches, %d request threads, %d ms job)%n",
+                LAUNCHES, REQUEST_THREADS, JOB_WORK_MILLIS);
+        System.out.printf("  sync  launcher: %8.1f launches/s%n", LAUNCHES / syncSeconds);
+        System.out.printf("  async launcher: %8.1f launches/s (all jobs completed after %.2f s)%n",
+                LAUNCHES / asyncLaunchSeconds, asyncCompleteSeconds);
+
+        assertEquals(LAUNCHES, syncExecutions.size());
+        assertEquals(LAUNCHES, asyncExecutions.size());
+    }
+
+    private List<Long> launchAll(JobLauncher launcher, int launches) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> executionIds = new ConcurrentLinkedQueue<>();
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        for (int i = 0; i < launches; i++) {
+            requestThreads.submit(() -> {
+                JobExecution execution = launcher.run(benchmarkJob, new JobParametersBuilder()
+                        .addLong("run", RUN_ID.incrementAndGet())
+                        .toJobParameters());
+                executionIds.add(execution.getId());
+                return null;
+            });
+        }
+        requestThreads.shutdown();
+        assertTrue(requestThreads.awaitTermination(5, TimeUnit.MINUTES));
+        return List.copyOf(executionIds);
+    }
+
+    private void awaitCompletion(List<Long> executionIds) throws InterruptedException {
+        for (Long executionId : executionIds) {
+            while (jobExplorer.getJobExecution(executionId).getStatus().isRunning()) {
+                Thread.sleep(5);
+            }
+            assertEquals(BatchStatus.COMPLETED, jobExplorer.getJobExecution(executionId).getStatus());
+        }
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000_000d;
+    }
+
+    @TestConfiguration
+    static class BenchmarkJobConfig {
+
+        @Bean
+        Job benchmarkJob(JobRepository jobRepository,
+                @Qualifier("batchTransactionManager") PlatformTransactionManager transactionManager) {
+            return new JobBuilder("launchBenchmarkJob", jobRepository)
+                    .start(new StepBuilder("launchBenchmarkStep", jobRepository)
+                            .tasklet((contribution, chunkContext) -> {
+                                Thread.sleep(JOB_WORK_MILLIS); // stands in for I/O-bound job work
+                                return RepeatStatus.FINISHED;
+                            }, transactionManager)
+                            .build())
+                    .build();
+        }
+    }
+}
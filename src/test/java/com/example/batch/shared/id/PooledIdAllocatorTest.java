@@ -0,0 +1,70 @@
+package com.example.batch.shared.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledIdAllocatorTest {
+
+    private EmbeddedDatabase dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testFirstBlockStartsAfterExistingIds() {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO price_calculations "
+                + "(id, original_price, vat_rate, vat_amount, total_price, created_at) "
+                + "VALUES (41, 1.00, 0.07, 0.07, 1.07, CURRENT_TIMESTAMP)");
+        PooledIdAllocator allocator = new PooledIdAllocator(dataSource, "price_calculations", 10);
+
+        // When
+        long first = allocator.nextId();
+        long second = allocator.nextId();
+
+        // Then
+        assertEquals(42L, first);
+        assertEquals(43L, second);
+        assertEquals(52L, jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_allocator WHERE sequence_name = 'price_calculations'", Long.class));
+    }
+
+    @Test
+    void testAllocatorsSharingTableNeverHandOutTheSameId() {
+        // Given
+        PooledIdAllocator first = new PooledIdAllocator(dataSource, "price_calculations", 3);
+        PooledIdAllocator second = new PooledIdAllocator(dataSource, "price_calculations", 3);
+        Set<Long> ids = new HashSet<>();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        // Then
+        assertEquals(20, ids.size());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.batch.shared.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobExecutionReadModelTest {
+
+    private EmbeddedDatabase database;
+    private JobRepository jobRepository;
+    private JobExplorer jobExplorer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(database);
+
+        JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+        repositoryFactory.setDataSource(database);
+        repositoryFactory.setTransactionManager(transactionManager);
+        repositoryFactory.afterPropertiesSet();
+        jobRepository = repositoryFactory.getObject();
+
+        JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+        explorerFactory.setDataSource(database);
+        explorerFactory.setTransactionManager(transactionManager);
+        explorerFactory.afterPropertiesSet();
+        jobExplorer = explorerFactory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testColdStartLoadsFromJobExplorerThenFollowsListenerEvents() throws Exception {
+        // Given: execution ที่รันก่อน read model ถูกสร้าง (เช่นก่อน restart)
+        JobExecution old = execution("vatCalculationJob", 1L, BatchStatus.COMPLETED);
+        JobExecutionReadModel readModel = new JobExecutionReadModel(jobExplorer, database, 100, 10,
+                Duration.ofMinutes(1));
+
+        // When
+        Map<String, Object> coldStart = readModel.allJobsStatus();
+        JobExecution running = execution("vatCalculationJob", 2L, BatchStatus.STARTED);
+        readModel.beforeJob(running);
+        Map<String, Object> afterEvent = readModel.allJobsStatus();
+
+        // Then: event invalidate cache ทันทีแม้ TTL ยังไม่หมด
+        assertEquals(1, coldStart.get("totalJobs"));
+        assertEquals("COMPLETED", jobStatus(coldStart, "vatCalculationJob").get("status"));
+        assertEquals("STARTED", jobStatus(afterEvent, "vatCalculationJob").get("status"));
+        assertNull(jobStatus(afterEvent, "vatCalculationJob").get("endTime"));
+        assertEquals(old.getId(), ((Map<?, ?>) readModel.executionDetails(old.getId()).get("execution"))
+                .get("executionId"));
+        assertNull(readModel.executionDetails(999L));
+    }
+
+    @Test
+    void testFindExecutionsFiltersAndPaginates() throws Exception {
+        // Given
+        JobExecutionReadModel readModel = new JobExecutionReadModel(jobExplorer, database, 100, 10,
+                Duration.ofMinutes(1));
+        for (long run = 1; run <= 5; run++) {
+            readModel.afterJob(execution("vatCalculationJob", run,
+                    run % 2 == 0 ? BatchStatus.FAILED : BatchStatus.COMPLETED));
+        }
+        readModel.afterJob(execution("exportVatCalculationsJob", 1L, BatchStatus.COMPLETED));
+
+        // When
+        Map<String, Object> completed = readModel.findExecutions("vatCalculationJob", BatchStatus.COMPLETED,
+                null, null, 0, 2);
+        Map<String, Object> secondPage = readModel.findExecutions("vatCalculationJob", BatchStatus.COMPLETED,
+                null, null, 1, 2);
+        Map<String, Object> future = readModel.findExecutions(null, null,
+                LocalDateTime.now().plusDays(1), null, 0, 10);
+
+        // Then: ใหม่สุดก่อน
+        assertEquals(3L, completed.get("totalElements"));
+        assertEquals(2L, completed.get("totalPages"));
+        List<?> content = (List<?>) completed.get("content");
+        assertEquals(2, content.size());
+        long first = (Long) ((Map<?, ?>) content.get(0)).get("executionId");
+        long second = (Long) ((Map<?, ?>) content.get(1)).get("executionId");
+        assertTrue(first > second);
+        assertEquals(1, ((List<?>) secondPage.get("content")).size());
+        assertEquals(0L, future.get("totalElements"));
+        assertThrows(IllegalArgumentException.class,
+                () -> readModel.findExecutions(null, null, null, null, -1, 10));
+    }
+
+    @Test
+    void testRetainsOnlyNewestExecutions() throws Exception {
+        // Given
+        JobExecutionReadModel readModel = new JobExecutionReadModel(jobExplorer, database, 3, 10,
+                Duration.ofMinutes(1));
+        readModel.allJobsStatus(); // cold start กับ repository ว่าง
+
+        // When
+        for (long run = 1; run <= 5; run++) {
+            readModel.afterJob(execution("vatCalculationJob", run, BatchStatus.COMPLETED));
+        }
+
+        // Then
+        assertEquals(3, readModel.size());
+    }
+
+    @Test
+    void testPicksUpExecutionsOfOtherProcessesAfterCacheTtl() throws Exception {
+        // Given: read model ของ API process, job รันใน one-shot container (ไม่มี listener event)
+        JobExecutionReadModel readModel = new JobExecutionReadModel(jobExplorer, database, 100, 10, Duration.ZERO);
+        readModel.allJobsStatus();
+        JobExecution external = execution("exportVatCalculationsJob", 1L, BatchStatus.STARTED);
+
+        // When
+        Map<String, Object> started = readModel.allJobsStatus();
+        external.setStatus(BatchStatus.COMPLETED);
+        external.setEndTime(LocalDateTime.now());
+        jobRepository.update(external);
+        Map<String, Object> completed = readModel.allJobsStatus();
+
+        // Then
+        assertEquals("STARTED", jobStatus(started, "exportVatCalculationsJob").get("status"));
+        assertEquals("COMPLETED", jobStatus(completed, "exportVatCalculationsJob").get("status"));
+    }
+
+    @Test
+    void testFindExecutionsOutsideRetainedWindowQueriesJobRepository() throws Exception {
+        // Given: เก็บไว้แค่ 2 executions จาก 4
+        JobExecutionReadModel readModel = new JobExecutionReadModel(jobExplorer, database, 2, 10,
+                Duration.ofMinutes(1));
+        readModel.allJobsStatus();
+        for (long run = 1; run <= 4; run++) {
+            readModel.afterJob(execution("vatCalculationJob", run, BatchStatus.COMPLETED));
+        }
+
+        // When
+        Map<String, Object> all = readModel.findExecutions("vatCalculationJob", null, null, null, 1, 2);
+        Map<String, Object> recent = readModel.findExecutions(null, null, LocalDateTime.now().plusDays(1), null, 0, 2);
+
+        // Then: หน้าที่สองมาจาก JobExplorer (execution ที่ read model ตัดทิ้งไปแล้ว)
+        assertEquals(2, readModel.size());
+        assertEquals(4L, all.get("totalElements"));
+        assertEquals(2, ((List<?>) all.get("content")).size());
+        assertEquals(0L, recent.get("totalElements"));
+    }
+
+    private JobExecution execution(String jobName, long run, BatchStatus status) throws Exception {
+        JobExecution execution = jobRepository.createJobExecution(jobName,
+                new JobParametersBuilder().addLong("run", run).toJobParameters());
+        execution.setStartTime(LocalDateTime.now());
+        execution.setStatus(status);
+        if (!status.isRunning()) {
+            execution.setEndTime(LocalDateTime.now());
+        }
+        jobRepository.update(execution);
+        return execution;
+    }
+
+    private static Map<?, ?> jobStatus(Map<String, Object> allJobs, String jobName) {
+        return (Map<?, ?>) ((Map<?, ?>) allJobs.get("jobStatuses")).get(jobName);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.batch.shared.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveProgressPublisherTest {
+
+    @Test
+    void testFailedPublishDoesNotCancelSchedule() throws Exception {
+        // Given: tracker ที่ throw ทุกครั้งที่ถูก drain
+        CountDownLatch publishes = new CountDownLatch(3);
+        LiveProgressTracker tracker = new LiveProgressTracker(4) {
+            @Override
+            public List<StepProgressSnapshot> drainFinished() {
+                publishes.countDown();
+                throw new IllegalStateException("boom");
+            }
+        };
+
+        // When
+        LiveProgressPublisher publisher = new LiveProgressPublisher(tracker, 10, 60_000);
+        try {
+            // Then: รอบถัดไปยังถูกเรียกหลังรอบที่ล้มเหลว
+            assertTrue(publishes.await(5, TimeUnit.SECONDS));
+        } finally {
+            publisher.destroy();
+        }
+    }
+}
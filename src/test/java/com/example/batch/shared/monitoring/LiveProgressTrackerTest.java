@@ -0,0 +1,78 @@
+package com.example.batch.shared.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveProgressTrackerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void testSnapshotReportsRatePercentilesAndEta() {
+        // Given: chunk ละ 100 items ใช้เวลา 100ms (= 1,000 items/sec) จาก input 10,000 items
+        AtomicLong clock = new AtomicLong();
+        LiveProgressTracker tracker = new LiveProgressTracker(4, clock::get);
+        StepExecution stepExecution = stepExecution(1L);
+        stepExecution.getExecutionContext().putLong(LiveProgressTracker.EXPECTED_ITEMS_KEY, 10_000);
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+
+        // When
+        tracker.beforeStep(stepExecution);
+        for (int chunk = 1; chunk <= 6; chunk++) {
+            tracker.beforeChunk(chunkContext);
+            clock.addAndGet(100 * MILLIS);
+            stepExecution.setReadCount(chunk * 100);
+            stepExecution.setWriteCount(chunk * 100);
+            tracker.afterChunk(chunkContext);
+        }
+        List<StepProgressSnapshot> snapshots = tracker.snapshotRunning();
+
+        // Then
+        assertEquals(1, snapshots.size());
+        StepProgressSnapshot snapshot = snapshots.get(0);
+        assertEquals("workerStep:partition0", snapshot.getStepName());
+        assertEquals(600, snapshot.getReadCount());
+        assertEquals(6.0, snapshot.getPercentComplete(), 0.001);
+        assertEquals(1_000.0, snapshot.getWriteItemsPerSecond(), 0.001);
+        assertEquals(100.0, snapshot.getChunkLatencyP99Ms(), 0.001);
+        assertEquals(10, snapshot.getEtaSeconds()); // เหลือ 9,400 items ที่ 1,000 items/sec
+    }
+
+    @Test
+    void testFinishedStepIsDrainedOnce() {
+        // Given
+        LiveProgressTracker tracker = new LiveProgressTracker(4);
+        StepExecution stepExecution = stepExecution(2L);
+        tracker.beforeStep(stepExecution);
+
+        // When
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        tracker.afterStep(stepExecution);
+
+        // Then: ไม่มี ETA เมื่อไม่รู้ input size
+        assertTrue(tracker.snapshotRunning().isEmpty());
+        List<StepProgressSnapshot> finished = tracker.drainFinished();
+        assertEquals(1, finished.size());
+        assertEquals("COMPLETED", finished.get(0).getStatus());
+        assertNull(finished.get(0).getEtaSeconds());
+        assertTrue(tracker.drainFinished().isEmpty());
+    }
+
+    private static StepExecution stepExecution(long id) {
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution("vatCalculationJob", 1L, 1L);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution(
+                jobExecution, "workerStep:partition0", id);
+        stepExecution.setStatus(BatchStatus.STARTED);
+        return stepExecution;
+    }
+}
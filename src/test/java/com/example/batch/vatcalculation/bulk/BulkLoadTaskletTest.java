@@ -0,0 +1,138 @@
+package com.example.batch.vatcalculation.bulk;
+
+import com.example.batch.shared.id.PooledIdAllocator;
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkLoadTaskletTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PooledIdAllocator idAllocator;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MYSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        idAllocator = new PooledIdAllocator(dataSource, "price_calculations", 100);
+    }
+
+    @Test
+    void testLoadsStagingFilesAndMergesOnSourceKey() throws Exception {
+        // Given: run แรกโหลด 2 แถว, run ที่สองมีบรรทัด 3 ซ้ำ (ค่าใหม่) และบรรทัด 4 ใหม่
+        runBulkLoad(1L, calculation("100.00", "7.00", "107.00", 2), calculation("200.00", "14.00", "214.00", 3));
+
+        // When
+        StepExecution second = runBulkLoad(2L,
+                calculation("250.00", "17.50", "267.50", 3), calculation("10.00", "0.70", "10.70", 4));
+
+        // Then
+        assertEquals(2, second.getWriteCount());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_calculations", Integer.class));
+        assertEquals(new BigDecimal("267.50"), jdbcTemplate.queryForObject(
+                "SELECT total_price FROM price_calculations WHERE source_line = 3", BigDecimal.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_calculations_staging", Integer.class));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "staging files are removed after a completed load");
+        }
+    }
+
+    @Test
+    void testMergesInSlicesCommittedOneAtATime() throws Exception {
+        // Given: slice ละ 2 แถว จาก 5 แถว
+        writeStagingFile(3L, calculation("1.00", "0.07", "1.07", 2), calculation("2.00", "0.14", "2.14", 3),
+                calculation("3.00", "0.21", "3.21", 4), calculation("4.00", "0.28", "4.28", 5),
+                calculation("5.00", "0.35", "5.35", 6));
+        BulkLoadTasklet tasklet = new BulkLoadTasklet(dataSource, tempDir, 2);
+        StepExecution stepExecution = stepExecution(3L);
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+        StepContribution contribution = stepExecution.createStepContribution();
+
+        // When: เตรียม staging, โหลดไฟล์, merge slice แรก
+        for (int call = 0; call < 3; call++) {
+            assertEquals(RepeatStatus.CONTINUABLE, tasklet.execute(contribution, chunkContext));
+        }
+
+        // Then: แต่ละ slice เป็น transaction ของตัวเอง (export ที่รันพร้อมกันเห็นแถวที่ commit แล้ว
+        // ภายใน safety-lag) ส่วนที่เหลือรออยู่ใน staging
+        assertEquals(2, count("price_calculations"));
+        assertEquals(3, count("price_calculations_staging"));
+        int calls = 3;
+        while (tasklet.execute(contribution, chunkContext) == RepeatStatus.CONTINUABLE) {
+            calls++;
+        }
+        assertEquals(5, calls); // อีก 2 slice แล้ว FINISHED
+        assertEquals(5, count("price_calculations"));
+        assertEquals(0, count("price_calculations_staging"));
+        assertEquals(5, contribution.getWriteCount());
+    }
+
+    private StepExecution runBulkLoad(long jobExecutionId, PriceCalculation... items) throws Exception {
+        writeStagingFile(jobExecutionId, items);
+
+        BulkLoadTasklet tasklet = new BulkLoadTasklet(dataSource, tempDir, 1_000);
+        StepExecution stepExecution = stepExecution(jobExecutionId);
+        StepContribution contribution = stepExecution.createStepContribution();
+        ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+        while (tasklet.execute(contribution, chunkContext) == RepeatStatus.CONTINUABLE) {
+            // โหลด / merge ชิ้นถัดไป
+        }
+        stepExecution.apply(contribution);
+        stepExecution.setExitStatus(ExitStatus.COMPLETED);
+        tasklet.afterStep(stepExecution);
+        return stepExecution;
+    }
+
+    private void writeStagingFile(long jobExecutionId, PriceCalculation... items) throws Exception {
+        StagingFileItemWriter writer = new StagingFileItemWriter(
+                BulkLoadTasklet.stagingFile(tempDir, jobExecutionId, 1L), idAllocator);
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(items));
+        writer.close();
+    }
+
+    private static StepExecution stepExecution(long jobExecutionId) {
+        return MetaDataInstanceFactory.createStepExecution(
+                MetaDataInstanceFactory.createJobExecution("vatCalculationJob", 1L, jobExecutionId),
+                "bulkLoadPriceCalculationsStep", 1L);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static PriceCalculation calculation(String price, String vat, String total, long sourceLine) {
+        PriceCalculation calculation = new PriceCalculation(new BigDecimal(price), new BigDecimal("0.07"),
+                new BigDecimal(vat), new BigDecimal(total));
+        calculation.setSourceFile("prices.csv");
+        calculation.setSourceLine(sourceLine);
+        return calculation;
+    }
+}
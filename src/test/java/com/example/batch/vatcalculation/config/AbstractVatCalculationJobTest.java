@@ -0,0 +1,90 @@
+package com.example.batch.vatcalculation.config;
+
+import com.example.batch.vatcalculation.reader.SourceFileKey;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fixture ของ test ที่รัน vatCalculationJob ทั้ง job ด้วย property ต่างกัน (writer mode, async mode)
+ * <p>
+ * แต่ละ test context อ่านไฟล์ CSV ของตัวเอง: source_file ไม่ชนกับแถวที่ test อื่นเขียนลง H2 ตัวเดียวกัน
+ */
+@SpringBatchTest
+@ActiveProfiles("test")
+abstract class AbstractVatCalculationJobTest {
+
+    static final String INPUT = "price,vatRate\n100.00,0.07\n250.50,0.07\n75.25,0.10\n";
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Autowired
+    @Qualifier("vatCalculationJob")
+    private Job vatCalculationJob;
+
+    @Autowired
+    @Qualifier("businessJdbcTemplate")
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${batch.vat-calculation.input-file}")
+    private String inputFileLocation;
+
+    @DynamicPropertySource
+    static void inputFile(DynamicPropertyRegistry registry) throws IOException {
+        Path inputFile = Files.createTempFile("vat-prices-", ".csv");
+        inputFile.toFile().deleteOnExit();
+        Files.writeString(inputFile, INPUT);
+        registry.add("batch.vat-calculation.input-file", () -> inputFile.toUri().toString());
+    }
+
+    // คืน BatchStatus: @SpringBatchTest ถือว่า method ใดๆ ที่คืน JobExecution เป็น factory ของ job scope
+    protected BatchStatus launch() throws Exception {
+        jobLauncherTestUtils.setJob(vatCalculationJob);
+        return jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+                .addLong("time", System.nanoTime())
+                .toJobParameters()).getStatus();
+    }
+
+    // แถวของไฟล์ input เรียงตามบรรทัด
+    protected List<Map<String, Object>> rows() throws IOException {
+        return jdbcTemplate.queryForList("SELECT id, original_price, vat_rate, vat_amount, total_price, created_at, "
+                + "source_line FROM price_calculations WHERE source_file = ? ORDER BY source_line",
+                SourceFileKey.of(Path.of(URI.create(inputFileLocation))));
+    }
+
+    protected static void assertDecimal(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), () -> expected + " != " + actual);
+    }
+
+    // ค่าที่คำนวณจาก INPUT (ปัดเศษ HALF_UP 2 ตำแหน่ง)
+    protected static void assertCalculatedRows(List<Map<String, Object>> rows) {
+        assertEquals(3, rows.size());
+        assertEquals(List.of(2L, 3L, 4L), rows.stream().map(row -> row.get("SOURCE_LINE")).toList());
+        assertDecimal("107.00", rows.get(0).get("TOTAL_PRICE"));
+        assertDecimal("250.50", rows.get(1).get("ORIGINAL_PRICE"));
+        assertDecimal("17.54", rows.get(1).get("VAT_AMOUNT"));
+        assertDecimal("268.04", rows.get(1).get("TOTAL_PRICE"));
+        assertDecimal("0.10", rows.get(2).get("VAT_RATE"));
+        assertDecimal("82.78", rows.get(2).get("TOTAL_PRICE"));
+    }
+}
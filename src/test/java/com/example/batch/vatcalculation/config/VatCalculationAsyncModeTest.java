@@ -0,0 +1,63 @@
+package com.example.batch.vatcalculation.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ปิด rate cache ให้ทุก item รอ simulated latency: chunk เดียว 3 item ควรใช้เวลาราว item ที่ช้าที่สุด ไม่ใช่ผลรวม
+@SpringBootTest(properties = {
+        "batch.vat-calculation.async.enabled=true",
+        "batch.vat-calculation.async.pool-size=4",
+        "batch.vat-rate.cache.enabled=false",
+        "batch.vat-rate.simulated-latency-ms=" + VatCalculationAsyncModeTest.LATENCY_MILLIS
+})
+class VatCalculationAsyncModeTest extends AbstractVatCalculationJobTest {
+
+    static final long LATENCY_MILLIS = 1000;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testAsyncModeProcessesChunkItemsConcurrently() throws Exception {
+        // When
+        BatchStatus status = launch();
+
+        // Then: AsyncItemWriter รอ Future ครบก่อนเขียน ทุกแถวมีค่าที่คำนวณแล้ว
+        assertEquals(BatchStatus.COMPLETED, status);
+        assertCalculatedRows(rows());
+
+        // Then: step ใช้เวลาใกล้ latency ของ item เดียว (แบบ sequential จะใช้ 3 เท่า)
+        JobInstance instance = jobExplorer.getLastJobInstance("vatCalculationJob");
+        StepExecution step = jobExplorer.getLastJobExecution(instance).getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().equals("processVatCalculationStep"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, step.getWriteCount());
+        Duration elapsed = Duration.between(step.getStartTime(), step.getEndTime());
+        assertTrue(elapsed.toMillis() >= LATENCY_MILLIS, () -> "step took " + elapsed);
+        assertTrue(elapsed.toMillis() < 3 * LATENCY_MILLIS, () -> "step took " + elapsed);
+
+        // Then: ทุก item ผ่าน vatProcessingExecutor ที่มี metric batch.executor.*
+        Timer queueWait = meterRegistry.get("batch.executor.queue.wait")
+                .tag("executor", "vatProcessingExecutor").timer();
+        assertEquals(3, queueWait.count());
+        assertEquals(3, meterRegistry.get("batch.executor.task.duration")
+                .tag("executor", "vatProcessingExecutor").timer().count());
+        assertNotNull(meterRegistry.get("batch.executor.queue.depth")
+                .tag("executor", "vatProcessingExecutor").gauge());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.batch.vatcalculation.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "batch.vat-calculation.writer-mode=jdbc")
+class VatCalculationJdbcWriterTest extends AbstractVatCalculationJobTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testJdbcBatchWriterPersistsCalculations() throws Exception {
+        // When
+        BatchStatus status = launch();
+
+        // Then: ทุกแถวถูก INSERT ผ่าน JdbcBatchItemWriter พร้อม id จาก id_allocator
+        assertEquals(BatchStatus.COMPLETED, status);
+        List<Map<String, Object>> rows = rows();
+        assertCalculatedRows(rows);
+        assertTrue(rows.stream().allMatch(row -> row.get("ID") != null && row.get("CREATED_AT") != null));
+        assertEquals(3.0, meterRegistry.get("batch.writer.rows").tag("writer_mode", "jdbc").counter().count());
+    }
+}
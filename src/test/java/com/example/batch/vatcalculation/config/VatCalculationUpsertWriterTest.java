@@ -0,0 +1,29 @@
+package com.example.batch.vatcalculation.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "batch.vat-calculation.writer-mode=upsert")
+class VatCalculationUpsertWriterTest extends AbstractVatCalculationJobTest {
+
+    @Test
+    void testRerunOnSameFileUpdatesRowsInPlace() throws Exception {
+        // Given
+        assertEquals(BatchStatus.COMPLETED, launch());
+        List<Map<String, Object>> firstRun = rows();
+
+        // When: รันซ้ำกับไฟล์เดิม (job instance ใหม่)
+        BatchStatus rerun = launch();
+
+        // Then: จำนวนแถว, id, created_at และค่าที่คำนวณเหมือนเดิม
+        assertEquals(BatchStatus.COMPLETED, rerun);
+        assertCalculatedRows(firstRun);
+        assertEquals(firstRun, rows());
+    }
+}
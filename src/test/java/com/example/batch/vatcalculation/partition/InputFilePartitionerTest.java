@@ -0,0 +1,84 @@
+package com.example.batch.vatcalculation.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputFilePartitionerTest {
+
+    private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    @Test
+    void testDirectoryAndGlobCreateOneNumberedPartitionPerFile(@TempDir Path directory) throws Exception {
+        // Given
+        write(directory.resolve("prices-b.csv"));
+        write(directory.resolve("prices-a.csv"));
+        write(directory.resolve("readme.txt"));
+        Files.createDirectories(directory.resolve("archive"));
+        write(directory.resolve("archive").resolve("prices-old.csv"));
+
+        // When
+        Map<String, ExecutionContext> fromDirectory = new InputFilePartitioner(resolver, directory.toString())
+                .partition(1);
+        Map<String, ExecutionContext> fromGlob = new InputFilePartitioner(resolver,
+                directory.toUri() + "prices-a*.csv").partition(1);
+
+        // Then: เฉพาะ *.csv ใน directory นั้น (ไม่รวม archive) เรียงตามชื่อ
+        assertEquals(List.of("partition0", "partition1"), List.copyOf(fromDirectory.keySet()));
+        assertEquals(List.of("partition0"), List.copyOf(fromGlob.keySet()));
+        assertEquals(directory.resolve("prices-b.csv"), file(fromDirectory.get("partition1")));
+        assertEquals(directory.resolve("prices-a.csv"), file(fromGlob.get("partition0")));
+    }
+
+    @Test
+    void testRestartReusesFileListOfManagerStepAfterArchiving(@TempDir Path directory) throws Exception {
+        // Given
+        write(directory.resolve("day-1.csv"));
+        write(directory.resolve("day-2.csv"));
+        write(directory.resolve("day-3.csv"));
+        ExecutionContext managerContext = new ExecutionContext();
+        Map<String, ExecutionContext> firstRun = new InputFilePartitioner(resolver, directory.toString(),
+                managerContext).partition(1);
+        InputFileArchiver archiver = new InputFileArchiver(null);
+
+        // When: day-2 เสร็จ, day-3 fail แล้วมีไฟล์ใหม่เข้ามาก่อน restart
+        archiver.afterStep(workerStep(firstRun.get("partition1"), BatchStatus.COMPLETED));
+        archiver.afterStep(workerStep(firstRun.get("partition2"), BatchStatus.FAILED));
+        write(directory.resolve("day-0.csv"));
+        Map<String, ExecutionContext> restart = new InputFilePartitioner(resolver, directory.toString(),
+                managerContext).partition(1);
+
+        // Then: partition เดิมชี้ไฟล์เดิม (partition1 ที่ COMPLETED Spring Batch จะข้ามไป)
+        assertTrue(Files.exists(directory.resolve("archive").resolve("day-2.csv")));
+        assertFalse(Files.exists(directory.resolve("day-2.csv")));
+        assertTrue(Files.exists(directory.resolve("day-3.csv")));
+        assertEquals(List.of("partition0", "partition1", "partition2"), List.copyOf(restart.keySet()));
+        assertEquals(directory.resolve("day-3.csv"), file(restart.get("partition2")));
+    }
+
+    private Path file(ExecutionContext partition) throws Exception {
+        String location = partition.getString(InputFilePartitioner.INPUT_FILE_KEY);
+        return Path.of(resolver.getResource(location).getURI());
+    }
+
+    private static StepExecution workerStep(ExecutionContext context, BatchStatus status) {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution(context);
+        stepExecution.setStatus(status);
+        return stepExecution;
+    }
+
+    private static void write(Path file) throws Exception {
+        Files.writeString(file, "price,vatRate\n100.00,0.07\n");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.batch.vatcalculation.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineAlignedByteRangePartitionerTest {
+
+    @Test
+    void testPartitionsCoverWholeFileOnLineBoundaries() throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder("price,vatRate\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append(i).append(".25,0.07\n");
+        }
+        byte[] content = csv.toString().getBytes(StandardCharsets.UTF_8);
+        Resource resource = new ByteArrayResource(content);
+
+        // When
+        Map<String, ExecutionContext> partitions = new LineAlignedByteRangePartitioner(resource).partition(4);
+
+        // Then
+        assertEquals(4, partitions.size());
+        StringBuilder reassembled = new StringBuilder();
+        long expectedStart = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get("partition" + i);
+            long start = context.getLong(LineAlignedByteRangePartitioner.START_OFFSET_KEY);
+            long end = context.getLong(LineAlignedByteRangePartitioner.END_OFFSET_KEY);
+
+            assertEquals(expectedStart, start);
+            assertTrue(start == 0 || content[(int) start - 1] == '\n', "partition must start on a new line");
+            assertEquals(reassembled.chars().filter(c -> c == '\n').count() + 1,
+                    context.getLong(LineAlignedByteRangePartitioner.START_LINE_KEY));
+            expectedStart = end;
+
+            try (InputStream in = new ByteRangeResource(resource, start, end).getInputStream()) {
+                reassembled.append(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(content.length, expectedStart);
+        assertEquals(csv.toString(), reassembled.toString());
+    }
+
+    @Test
+    void testSmallFileProducesFewerPartitions() {
+        // Given
+        Resource resource = new ByteArrayResource("price,vatRate\n100.00,0.07\n".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        Map<String, ExecutionContext> partitions = new LineAlignedByteRangePartitioner(resource).partition(8);
+
+        // Then
+        assertFalse(partitions.isEmpty());
+        assertTrue(partitions.size() <= 2);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.batch.vatcalculation.processor;
+
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.model.PriceInput;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointVatCalculatorTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void testParityWithBigDecimalOverRandomInputs() {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            // price สูงสุด ±10^8 และ vatRate 0 - 10 ที่ scale ต่าง ๆ
+            int priceScale = random.nextInt(3);
+            int rateScale = random.nextInt(5);
+            BigDecimal price = BigDecimal.valueOf(random.nextLong(-10_000_000_000L, 10_000_000_000L)
+                    / (long) Math.pow(10, 2 - priceScale), priceScale);
+            BigDecimal vatRate = BigDecimal.valueOf(random.nextLong(0, (long) Math.pow(10, rateScale + 1) + 1), rateScale);
+
+            // When
+            long priceUnscaled = FixedPointVatCalculator.toUnscaled(price, FixedPointVatCalculator.PRICE_SCALE);
+            long rateUnscaled = FixedPointVatCalculator.toUnscaled(vatRate, FixedPointVatCalculator.RATE_SCALE);
+            long vatAmount = FixedPointVatCalculator.vatAmount(priceUnscaled, rateUnscaled);
+            long totalPrice = FixedPointVatCalculator.totalPrice(priceUnscaled, vatAmount);
+
+            // Then
+            BigDecimal expectedVat = price.multiply(vatRate).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal expectedTotal = price.add(expectedVat).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expectedVat, BigDecimal.valueOf(vatAmount, 2), () -> price + " * " + vatRate);
+            assertEquals(expectedTotal, BigDecimal.valueOf(totalPrice, 2), () -> price + " + VAT " + vatRate);
+        }
+    }
+
+    @Test
+    void testHalfUpRoundsAwayFromZeroOnExactHalf() {
+        // 0.50 * 0.0100 = 0.005 -> 0.01, -0.50 * 0.0100 = -0.005 -> -0.01
+        assertEquals(1L, FixedPointVatCalculator.vatAmount(50, 100));
+        assertEquals(-1L, FixedPointVatCalculator.vatAmount(-50, 100));
+        // 0.49 * 0.0100 = 0.0049 -> 0.00
+        assertEquals(0L, FixedPointVatCalculator.vatAmount(49, 100));
+    }
+
+    @Test
+    void testValuesThatDoNotFitAreNotRepresentable() {
+        assertEquals(FixedPointVatCalculator.NOT_REPRESENTABLE,
+                FixedPointVatCalculator.toUnscaled(new BigDecimal("1.005"), FixedPointVatCalculator.PRICE_SCALE));
+        assertEquals(FixedPointVatCalculator.NOT_REPRESENTABLE,
+                FixedPointVatCalculator.toUnscaled(new BigDecimal("1E+3"), FixedPointVatCalculator.PRICE_SCALE));
+        assertEquals(FixedPointVatCalculator.NOT_REPRESENTABLE,
+                FixedPointVatCalculator.toUnscaled(new BigDecimal("12345678901234567.89"), FixedPointVatCalculator.PRICE_SCALE));
+        assertThrows(ArithmeticException.class, () -> FixedPointVatCalculator.vatAmount(Long.MAX_VALUE / 10, 700));
+    }
+
+    @Test
+    void testProcessorFallsBackToBigDecimalForUnrepresentableInput() throws Exception {
+        // Given
+        VatCalculationProcessor processor = new VatCalculationProcessor(0, true);
+
+        // When
+        PriceCalculation fixedPoint = processor.process(new PriceInput(new BigDecimal("250.50"), new BigDecimal("0.10")));
+        PriceCalculation fallback = processor.process(new PriceInput(new BigDecimal("100.005"), new BigDecimal("0.07")));
+
+        // Then
+        assertEquals(new BigDecimal("25.05"), fixedPoint.getVatAmount());
+        assertEquals(new BigDecimal("275.55"), fixedPoint.getTotalPrice());
+        assertEquals(new BigDecimal("7.00"), fallback.getVatAmount());
+        assertEquals(new BigDecimal("107.01"), fallback.getTotalPrice());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.batch.vatcalculation.rate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingVatRateResolverTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final VatRateResolver countingLookup = rate -> {
+        lookups.incrementAndGet();
+        return rate;
+    };
+
+    @Test
+    void testRepeatedRatesAreLookedUpOnce() {
+        // Given
+        CachingVatRateResolver resolver = resolver(null, false, 100);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            resolver.resolve(new BigDecimal(i % 2 == 0 ? "0.07" : "0.10"));
+        }
+
+        // Then
+        assertEquals(2, lookups.get());
+        assertEquals(998.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testPreloadAtStepStartAvoidsLookups() {
+        // Given
+        VatRateRepository repository = new VatRateRepository(null) {
+            @Override
+            public Map<String, BigDecimal> findAll() {
+                return Map.of("0.07", new BigDecimal("0.0700"));
+            }
+        };
+        CachingVatRateResolver resolver = resolver(repository, true, 100);
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+
+        // When
+        resolver.beforeStep(stepExecution);
+        BigDecimal rate = resolver.resolve(new BigDecimal("0.07"));
+
+        // Then
+        assertEquals(new BigDecimal("0.0700"), rate);
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void testCacheIsBoundedBySize() {
+        // Given
+        CachingVatRateResolver resolver = resolver(null, false, 10);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            resolver.resolve(BigDecimal.valueOf(i, 4));
+        }
+
+        // Then
+        assertEquals(10, resolver.estimatedSize());
+        assertEquals(990.0, meterRegistry.get("cache.evictions").functionCounter().count());
+    }
+
+    private CachingVatRateResolver resolver(VatRateRepository repository, boolean preload, long maximumSize) {
+        return new CachingVatRateResolver(countingLookup, repository, preload, maximumSize, Duration.ofHours(1),
+                meterRegistry);
+    }
+}
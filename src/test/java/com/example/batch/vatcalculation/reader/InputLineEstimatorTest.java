@@ -0,0 +1,35 @@
+package com.example.batch.vatcalculation.reader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputLineEstimatorTest {
+
+    @Test
+    void testSmallRangeIsCountedExactly() throws Exception {
+        // Given: บรรทัดสุดท้ายไม่มี '\n'
+        byte[] content = "price,vatRate\n100.00,0.07\n200.00,0.07".getBytes(StandardCharsets.UTF_8);
+
+        // When / Then
+        assertEquals(3, InputLineEstimator.estimateLines(new ByteArrayResource(content), 0, content.length));
+        assertEquals(2, InputLineEstimator.estimateLines(new ByteArrayResource(content), 14, content.length));
+    }
+
+    @Test
+    void testLargeRangeIsExtrapolatedFromSample() throws Exception {
+        // Given: 100,000 บรรทัดขนาดเท่ากัน (ใหญ่กว่าขนาดตัวอย่าง)
+        String line = "123.45,0.07\n";
+        byte[] content = line.repeat(100_000).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        long estimate = InputLineEstimator.estimateLines(new ByteArrayResource(content), 0, content.length);
+
+        // Then
+        assertTrue(content.length > InputLineEstimator.SAMPLE_BYTES);
+        assertEquals(100_000, estimate, 10);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.batch.vatcalculation.reader;
+
+import com.example.batch.vatcalculation.model.PriceInput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPriceFileReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReadsAllLinesAcrossSmallMappingWindows() throws Exception {
+        // Given: window 16 byte บังคับให้ map ใหม่หลายครั้ง, มี CRLF, บรรทัดว่าง และไม่มี newline ปิดท้าย
+        Path file = write("price,vatRate\r\n100.00,0.07\r\n\r\n250.50,0.07\n75.80,0.10");
+        MappedPriceFileReader reader = new MappedPriceFileReader(file, 0, -1, 1, true, 16);
+
+        // When
+        reader.open(new ExecutionContext());
+        List<PriceInput> items = readAll(reader);
+        reader.close();
+
+        // Then
+        assertEquals(3, items.size());
+        assertEquals(new BigDecimal("100.00"), items.get(0).getPrice());
+        assertEquals(new BigDecimal("250.50"), items.get(1).getPrice());
+        assertEquals(new BigDecimal("75.80"), items.get(2).getPrice());
+        assertEquals(new BigDecimal("0.10"), items.get(2).getVatRate());
+        assertEquals(5L, items.get(2).getSourceLine());
+    }
+
+    @Test
+    void testRestartResumesFromSavedByteOffset() throws Exception {
+        // Given
+        Path file = write(csv(10));
+        MappedPriceFileReader reader = new MappedPriceFileReader(file, 0, -1, 1, true);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        for (int i = 0; i < 4; i++) {
+            reader.read();
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        // When
+        MappedPriceFileReader restarted = new MappedPriceFileReader(file, 0, -1, 1, true);
+        restarted.open(executionContext);
+        List<PriceInput> remaining = readAll(restarted);
+        restarted.close();
+
+        // Then
+        assertEquals(6, remaining.size());
+        assertEquals(new BigDecimal("4.25"), remaining.get(0).getPrice());
+        assertEquals(6L, remaining.get(0).getSourceLine());
+    }
+
+    @Test
+    void testReadsOnlyItsByteRange() throws Exception {
+        // Given: ช่วงที่สองเริ่มต้นบรรทัด "3.25,0.07" (header 14 byte + บรรทัดละ 10 byte)
+        Path file = write(csv(6));
+        long split = 14 + 3 * 10;
+        MappedPriceFileReader first = new MappedPriceFileReader(file, 0, split, 1, true);
+        MappedPriceFileReader second = new MappedPriceFileReader(file, split, -1, 5, false);
+
+        // When
+        first.open(new ExecutionContext());
+        List<PriceInput> firstItems = readAll(first);
+        first.close();
+        second.open(new ExecutionContext());
+        List<PriceInput> secondItems = readAll(second);
+        second.close();
+
+        // Then
+        assertEquals(3, firstItems.size());
+        assertEquals(3, secondItems.size());
+        assertEquals(new BigDecimal("3.25"), secondItems.get(0).getPrice());
+        assertEquals(4L, firstItems.get(2).getSourceLine());
+        assertEquals(5L, secondItems.get(0).getSourceLine());
+        assertEquals(SourceFileKey.of(file), secondItems.get(0).getSourceFile());
+    }
+
+    @Test
+    void testMalformedLineReportsLineContent() throws Exception {
+        // Given
+        Path file = write("price,vatRate\n100.00,0.07\nbroken\n");
+        MappedPriceFileReader reader = new MappedPriceFileReader(file, 0, -1, 1, true);
+        reader.open(new ExecutionContext());
+        reader.read();
+
+        // When
+        FlatFileParseException exception = assertThrows(FlatFileParseException.class, reader::read);
+        reader.close();
+
+        // Then
+        assertEquals("broken", exception.getInput());
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = tempDir.resolve("prices.csv");
+        Files.writeString(file, content, StandardCharsets.US_ASCII);
+        return file;
+    }
+
+    private static String csv(int rows) {
+        StringBuilder csv = new StringBuilder("price,vatRate\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(i).append(".25,0.07\n");
+        }
+        return csv.toString();
+    }
+
+    private static List<PriceInput> readAll(MappedPriceFileReader reader) throws Exception {
+        List<PriceInput> items = new ArrayList<>();
+        PriceInput item;
+        while ((item = reader.read()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+}
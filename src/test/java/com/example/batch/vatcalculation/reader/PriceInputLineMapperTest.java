@@ -0,0 +1,49 @@
+package com.example.batch.vatcalculation.reader;
+
+import com.example.batch.vatcalculation.model.PriceInput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.item.file.transform.IncorrectTokenCountException;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceInputLineMapperTest {
+
+    private final PriceInputLineMapper mapper = new PriceInputLineMapper();
+
+    @Test
+    void testMapLine() throws Exception {
+        // When
+        PriceInput input = mapper.mapLine("250.50,0.07", 2);
+
+        // Then
+        assertEquals(new BigDecimal("250.50"), input.getPrice());
+        assertEquals(new BigDecimal("0.07"), input.getVatRate());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"100.00", "0.07", "0", "-12.5", "+3", ".5", "5.", " 42.10 ", "1e3",
+            "12345678901234567890.12", "0.0725", "99999999.99"})
+    void testParseDecimalMatchesBigDecimalScaleAndValue(String text) {
+        // When
+        BigDecimal parsed = PriceInputLineMapper.parseDecimal(text, 0, text.length());
+
+        // Then
+        assertEquals(new BigDecimal(text.trim()), parsed);
+    }
+
+    @Test
+    void testRejectsWrongFieldCount() {
+        assertThrows(IncorrectTokenCountException.class, () -> mapper.mapLine("100.00", 2));
+        assertThrows(IncorrectTokenCountException.class, () -> mapper.mapLine("100.00,0.07,extra", 2));
+    }
+
+    @Test
+    void testRejectsInvalidNumber() {
+        assertThrows(NumberFormatException.class, () -> mapper.mapLine("abc,0.07", 2));
+        assertThrows(NumberFormatException.class, () -> mapper.mapLine(",0.07", 2));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.batch.vatcalculation.writer;
+
+import com.example.batch.vatcalculation.model.PriceCalculation;
+import com.example.batch.vatcalculation.model.PriceInput;
+import com.example.batch.vatcalculation.rate.SimulatedVatRateResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarVatCalculationWriterTest {
+
+    @Test
+    void testChunkResultsMatchBigDecimalCalculation() throws Exception {
+        // Given: ค่าปกติปนกับค่าที่ต้อง fallback (scale เกิน, ค่าใหญ่เกิน column)
+        SplittableRandom random = new SplittableRandom(7);
+        List<PriceInput> inputs = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            inputs.add(new PriceInput(BigDecimal.valueOf(random.nextLong(-2_000_000_000L, 2_000_000_000L), 2),
+                    BigDecimal.valueOf(random.nextLong(0, 100_001), 4)));
+        }
+        inputs.add(new PriceInput(new BigDecimal("100.005"), new BigDecimal("0.07")));
+        inputs.add(new PriceInput(new BigDecimal("99999999999.99"), new BigDecimal("0.07")));
+        inputs.add(new PriceInput(new BigDecimal("0.50"), new BigDecimal("0.01")));
+        inputs.add(new PriceInput(new BigDecimal("-0.50"), new BigDecimal("0.01")));
+
+        List<PriceCalculation> written = new ArrayList<>();
+        ColumnarVatCalculationWriter writer = new ColumnarVatCalculationWriter(chunk -> written.addAll(chunk.getItems()),
+                new SimulatedVatRateResolver(0));
+
+        // When
+        writer.write(new Chunk<>(inputs));
+
+        // Then
+        assertEquals(inputs.size(), written.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            PriceInput input = inputs.get(i);
+            BigDecimal expectedVat = input.getPrice().multiply(input.getVatRate()).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expectedVat, written.get(i).getVatAmount(), input::toString);
+            assertEquals(input.getPrice().add(expectedVat).setScale(2, RoundingMode.HALF_UP),
+                    written.get(i).getTotalPrice(), input::toString);
+            assertSame(input.getPrice(), written.get(i).getOriginalPrice());
+        }
+    }
+}
@@ -5,7 +5,49 @@ CREATE TABLE IF NOT EXISTS price_calculations (
     vat_rate DECIMAL(5,4) NOT NULL,
     vat_amount DECIMAL(10,2) NOT NULL,
     total_price DECIMAL(10,2) NOT NULL,
-    created_at TIMESTAMP NOT NULL
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    source_file VARCHAR(255),
+    source_line BIGINT,
+    CONSTRAINT uk_price_calculations_source UNIQUE (source_file, source_line)
+);
+CREATE INDEX IF NOT EXISTS idx_price_calculations_updated ON price_calculations (updated_at, id);
+
+-- Bulk load staging (BulkLoadTasklet): rows are tagged with the job execution that loaded them
+CREATE TABLE IF NOT EXISTS price_calculations_staging (
+    job_execution_id BIGINT NOT NULL,
+    id BIGINT NOT NULL,
+    original_price DECIMAL(10,2) NOT NULL,
+    vat_rate DECIMAL(5,4) NOT NULL,
+    vat_amount DECIMAL(10,2) NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    source_file VARCHAR(255),
+    source_line BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_staging_job_execution ON price_calculations_staging (job_execution_id, id);
+
+-- Pooled ID allocation (PooledIdAllocator): next unreserved id per table.
+-- Rows are seeded on first use from MAX(id) + 1, so existing AUTO_INCREMENT ids stay valid.
+CREATE TABLE IF NOT EXISTS id_allocator (
+    sequence_name VARCHAR(100) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+-- VAT rate lookup table (rate code from the CSV -> effective rate)
+CREATE TABLE IF NOT EXISTS vat_rates (
+    rate_code VARCHAR(32) NOT NULL PRIMARY KEY,
+    rate DECIMAL(5,4) NOT NULL
+);
+MERGE INTO vat_rates (rate_code, rate) KEY (rate_code) VALUES ('0.07', 0.0700), ('0.10', 0.1000);
+
+-- High-water mark for incremental exports
+CREATE TABLE IF NOT EXISTS export_watermark (
+    job_name VARCHAR(100) NOT NULL PRIMARY KEY,
+    last_exported_id BIGINT NOT NULL,
+    last_updated_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL
 );
 
 -- Spring Batch Tables for H2